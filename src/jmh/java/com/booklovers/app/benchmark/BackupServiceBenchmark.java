@@ -0,0 +1,37 @@
+package com.booklovers.app.benchmark;
+
+import com.booklovers.app.service.BackupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Eksport jednego użytkownika do strumienia, który odrzuca dane - mierzymy zapytania i serializację, nie dysk.
+@State(Scope.Thread)
+public class BackupServiceBenchmark extends BenchmarkDefaults {
+
+    private BackupService backupService;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        backupService = library.bean(BackupService.class);
+    }
+
+    @Benchmark
+    public void exportJson(LibraryState library) throws IOException {
+        backupService.writeUserData(library.userId(library.randomUserIndex()), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportCsvGzip(LibraryState library) throws IOException {
+        backupService.writeUserDataAsCsv(library.userId(library.randomUserIndex()), OutputStream.nullOutputStream(), true);
+    }
+
+    @Benchmark
+    public void exportPdf(LibraryState library) throws IOException {
+        backupService.writeUserDataAsPdf(library.userId(library.randomUserIndex()), OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,35 @@
+package com.booklovers.app.benchmark;
+
+import com.booklovers.app.dto.BookExplorePageDTO;
+import com.booklovers.app.dto.BookStatsDTO;
+import com.booklovers.app.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class BookServiceBenchmark extends BenchmarkDefaults {
+
+    private BookService bookService;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        bookService = library.bean(BookService.class);
+    }
+
+    @Benchmark
+    public BookExplorePageDTO exploreFirstPage() {
+        return bookService.exploreBooks(null, null, BookService.EXPLORE_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookExplorePageDTO exploreSearch() {
+        return bookService.exploreBooks("lalka noc", null, BookService.EXPLORE_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public BookStatsDTO bookStats(LibraryState library) {
+        return bookService.getBookStats(library.randomBookId());
+    }
+}
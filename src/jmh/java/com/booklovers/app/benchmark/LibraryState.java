@@ -0,0 +1,162 @@
+package com.booklovers.app.benchmark;
+
+import com.booklovers.app.DemoApplication;
+import com.booklovers.app.service.BookRatingService;
+import com.booklovers.app.service.BookSearchService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Kontekst aplikacji na wygenerowanej bazie H2; skalę zbioru ustawia się parametrami JMH (-p books=100000).
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    static final String[] SYSTEM_SHELVES = {"READ", "READING", "WANT_TO_READ"};
+    private static final int BATCH_SIZE = 1000;
+
+    @Param("200")
+    public int users;
+
+    @Param("20000")
+    public int books;
+
+    @Param("3")
+    public int reviewsPerBook;
+
+    @Param("300")
+    public int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> bookIds;
+    private List<Long> userIds;
+    private List<String> usernames;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Argumenty wiersza poleceń mają pierwszeństwo przed application.yml, więc profil dev nie jest włączany.
+        context = new SpringApplicationBuilder(DemoApplication.class).run(
+                "--spring.profiles.active=benchmark",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.open-in-view=false",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        generate(new Random(42));
+        context.getBean(BookRatingService.class).rebuild();
+        context.getBean(BookSearchService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Long randomBookId() {
+        return bookIds.get(ThreadLocalRandom.current().nextInt(bookIds.size()));
+    }
+
+    public int randomUserIndex() {
+        return ThreadLocalRandom.current().nextInt(userIds.size());
+    }
+
+    public Long userId(int index) {
+        return userIds.get(index);
+    }
+
+    public String username(int index) {
+        return usernames.get(index);
+    }
+
+    private void generate(Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            rows.add(new Object[]{title(random, i), "Autor " + (i % 997), String.format("BENCH-%08d", i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (title, author, isbn) VALUES (?, ?, ?)", rows, BATCH_SIZE,
+                (ps, row) -> setAll(ps, row));
+        bookIds = jdbcTemplate.queryForList("SELECT id FROM book WHERE isbn LIKE 'BENCH-%' ORDER BY id", Long.class);
+
+        rows.clear();
+        for (int i = 0; i < users; i++) {
+            String username = String.format("czytelnik%05d", i);
+            rows.add(new Object[]{username, "{noop}haslo", "USER", 50, username + "@example.com", false});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO app_user (username, password, role, reading_goal, email, locked) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows, BATCH_SIZE, (ps, row) -> setAll(ps, row));
+        userIds = jdbcTemplate.queryForList("SELECT id FROM app_user WHERE username LIKE 'czytelnik%' ORDER BY username",
+                Long.class);
+        usernames = jdbcTemplate.queryForList("SELECT username FROM app_user WHERE username LIKE 'czytelnik%' "
+                + "ORDER BY username", String.class);
+
+        rows.clear();
+        for (Long userId : userIds) {
+            for (String code : SYSTEM_SHELVES) {
+                rows.add(new Object[]{code, code, userId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shelf (name, shelf_code, user_id) VALUES (?, ?, ?)", rows, BATCH_SIZE,
+                (ps, row) -> setAll(ps, row));
+
+        // Każda książka trafia na dokładnie jedną półkę systemową użytkownika, jak w aplikacji.
+        rows.clear();
+        for (Long userId : userIds) {
+            List<Long> shelfIds = jdbcTemplate.queryForList("SELECT id FROM shelf WHERE user_id = ? ORDER BY id",
+                    Long.class, userId);
+            int start = random.nextInt(bookIds.size());
+            for (int i = 0; i < Math.min(booksPerUser, bookIds.size()); i++) {
+                Long bookId = bookIds.get((start + i) % bookIds.size());
+                rows.add(new Object[]{shelfIds.get(random.nextInt(shelfIds.size())), bookId});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shelf_books (shelf_id, book_id) VALUES (?, ?)", rows, BATCH_SIZE,
+                (ps, row) -> setAll(ps, row));
+
+        rows.clear();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int b = 0; b < bookIds.size(); b++) {
+            for (int r = 0; r < Math.min(reviewsPerBook, userIds.size()); r++) {
+                Long userId = userIds.get((b + r) % userIds.size());
+                rows.add(new Object[]{1 + random.nextInt(10), "Recenzja " + r, createdAt, userId, bookIds.get(b)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO review (rating, content, created_at, user_id, book_id) "
+                + "VALUES (?, ?, ?, ?, ?)", rows, BATCH_SIZE, (ps, row) -> setAll(ps, row));
+    }
+
+    private static String title(Random random, int index) {
+        String[] words = {"Wojna", "Pokój", "Lalka", "Noc", "Dom", "Miasto", "Ogród", "Zamek", "Rzeka", "Sen"};
+        return words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + index;
+    }
+
+    private static void setAll(PreparedStatement ps, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.booklovers.app.benchmark;
+
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.service.ExploreFeedService;
+import com.booklovers.app.service.ShelfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Thread)
+public class ShelfServiceBenchmark extends BenchmarkDefaults {
+
+    private ShelfService shelfService;
+    private ExploreFeedService exploreFeedService;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        shelfService = library.bean(ShelfService.class);
+        exploreFeedService = library.bean(ExploreFeedService.class);
+    }
+
+    @Benchmark
+    public void addOrMoveBook(LibraryState library) {
+        String shelfCode = LibraryState.SYSTEM_SHELVES[ThreadLocalRandom.current().nextInt(LibraryState.SYSTEM_SHELVES.length)];
+        shelfService.addBookToShelfByCode(library.username(library.randomUserIndex()), shelfCode, library.randomBookId());
+    }
+
+    @Benchmark
+    public ExplorePageDTO explorePageCached() {
+        return shelfService.getExplorePage(null, 20);
+    }
+
+    @Benchmark
+    public ExplorePageDTO explorePageCold() {
+        exploreFeedService.evictAll();
+        return shelfService.getExplorePage(null, 20);
+    }
+}
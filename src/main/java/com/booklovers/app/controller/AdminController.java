@@ -1,13 +1,25 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.BookRequest;
+import com.booklovers.app.dto.CacheStatsDTO;
+import com.booklovers.app.dto.DumpResultDTO;
+import com.booklovers.app.dto.FlightRecordingDTO;
 import com.booklovers.app.model.Book;
 import com.booklovers.app.service.AdminService;
 import com.booklovers.app.service.BookService;
+import com.booklovers.app.service.DatabaseDumpService;
+import com.booklovers.app.service.FlightRecordingService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -15,10 +27,15 @@ public class AdminController {
 
     private final AdminService adminService;
     private final BookService bookService;
+    private final DatabaseDumpService databaseDumpService;
+    private final FlightRecordingService flightRecordingService;
 
-    public AdminController(AdminService adminService, BookService bookService) {
+    public AdminController(AdminService adminService, BookService bookService,
+                           DatabaseDumpService databaseDumpService, FlightRecordingService flightRecordingService) {
         this.adminService = adminService;
         this.bookService = bookService;
+        this.databaseDumpService = databaseDumpService;
+        this.flightRecordingService = flightRecordingService;
     }
 
     @PutMapping("/users/{userId}/lock")
@@ -62,6 +79,54 @@ public class AdminController {
         }
     }
 
+    @PostMapping("/ratings/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> rebuildRatingSummaries() {
+        int books = adminService.rebuildRatingSummaries();
+        return ResponseEntity.ok("Przebudowano podsumowania ocen dla " + books + " książek.");
+    }
+
+    @GetMapping("/security/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<CacheStatsDTO> getAuthCacheStats() {
+        return adminService.getAuthCacheStats();
+    }
+
+    @PostMapping("/dump")
+    @PreAuthorize("hasRole('ADMIN')")
+    public DumpResultDTO dumpDatabase() throws IOException {
+        return databaseDumpService.dump();
+    }
+
+    @PostMapping("/dump/{fileName}/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public DumpResultDTO restoreDatabase(@PathVariable String fileName) throws IOException {
+        return databaseDumpService.restore(fileName);
+    }
+
+    @PostMapping("/jfr/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    public FlightRecordingDTO startRecording() throws IOException {
+        return flightRecordingService.start();
+    }
+
+    @GetMapping("/jfr")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FlightRecordingDTO> getRecording() {
+        return ResponseEntity.of(flightRecordingService.getStatus());
+    }
+
+    @PostMapping("/jfr/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> stopRecording() throws IOException {
+        Path file = flightRecordingService.stop();
+        StreamingResponseBody body = out -> flightRecordingService.transferAndDelete(file, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
     @DeleteMapping("/books/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
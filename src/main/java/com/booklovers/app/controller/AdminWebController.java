@@ -94,7 +94,13 @@ public class AdminWebController {
             return "admin/book_edit";
         }
 
-        bookService.updateBook(id, request);
+        try {
+            bookService.updateBook(id, request);
+        } catch (IllegalStateException e) {
+            result.rejectValue("isbn", "duplicate", e.getMessage());
+            model.addAttribute("bookId", id);
+            return "admin/book_edit";
+        }
         return "redirect:/books/" + id + "?updated=true";
     }
 
@@ -112,7 +118,12 @@ public class AdminWebController {
             return "admin/book_form";
         }
 
-        bookService.createBook(request);
+        try {
+            bookService.createBook(request);
+        } catch (IllegalStateException e) {
+            result.rejectValue("isbn", "duplicate", e.getMessage());
+            return "admin/book_form";
+        }
         return "redirect:/books?msg=BookAdded";
     }
 }
\ No newline at end of file
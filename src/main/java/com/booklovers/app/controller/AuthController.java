@@ -1,9 +1,13 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.RefreshTokenRequest;
 import com.booklovers.app.dto.RegisterRequest;
+import com.booklovers.app.dto.TokenRequest;
 import com.booklovers.app.service.AuthService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -25,4 +29,22 @@ public class AuthController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/token")
+    public ResponseEntity<?> token(@Valid @RequestBody TokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.issueToken(request));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refreshToken(request.getRefreshToken()));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
+    }
+}
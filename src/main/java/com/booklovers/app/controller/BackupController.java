@@ -1,56 +1,77 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.BackupJobDTO;
+import com.booklovers.app.dto.ImportResultDTO;
 import com.booklovers.app.model.User;
+import com.booklovers.app.service.BackupJobService;
 import com.booklovers.app.service.BackupService;
 import com.booklovers.app.service.UserService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/backup")
 public class BackupController {
 
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
     private final BackupService backupService;
     private final UserService userService;
+    private final BackupJobService backupJobService;
 
-    public BackupController(BackupService backupService, UserService userService) {
+    public BackupController(BackupService backupService, UserService userService, BackupJobService backupJobService) {
         this.backupService = backupService;
         this.userService = userService;
+        this.backupJobService = backupJobService;
     }
 
     @GetMapping("/export")
-    public ResponseEntity<?> exportUser(@RequestParam(defaultValue = "json") String format,
-                                        Principal principal) {
+    public ResponseEntity<StreamingResponseBody> exportUser(@RequestParam(defaultValue = "json") String format,
+                                                            @RequestParam(defaultValue = "false") boolean gzip,
+                                                            Principal principal) {
         try {
             User user = userService.getUserByUsername(principal.getName());
             Long userId = user.getId();
 
-            String content;
-            String filename;
-            MediaType mediaType;
+            if ("pdf".equalsIgnoreCase(format)) {
+                StreamingResponseBody pdf = out -> backupService.writeUserDataAsPdf(userId, out);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user_backup.pdf\"")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(pdf);
+            }
 
             if ("csv".equalsIgnoreCase(format)) {
-                content = backupService.exportUserDataToCSV(userId);
-                filename = "user_backup.csv";
-                mediaType = MediaType.TEXT_PLAIN;
-            } else {
-                content = backupService.exportUserData(userId);
-                filename = "user_backup.json";
-                mediaType = MediaType.APPLICATION_JSON;
+                StreamingResponseBody csv = out -> backupService.writeUserDataAsCsv(userId, out, gzip);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"user_backup.csv" + (gzip ? ".gz" : "") + "\"")
+                        .contentType(gzip ? GZIP : MediaType.TEXT_PLAIN)
+                        .body(csv);
             }
 
+            StreamingResponseBody body = out -> backupService.writeUserData(userId, out);
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(mediaType)
-                    .body(content);
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user_backup.json\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Błąd eksportu: " + e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(text("Błąd eksportu: " + e.getMessage()));
         }
     }
 
@@ -61,13 +82,76 @@ public class BackupController {
             if (file.isEmpty()) return ResponseEntity.badRequest().body("Plik pusty");
 
             User user = userService.getUserByUsername(principal.getName());
-            String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-
-            backupService.importUserData(user.getId(), content);
+            ImportResultDTO result;
+            try (InputStream content = file.getInputStream()) {
+                result = backupService.importUserData(user.getId(), content);
+            }
 
-            return ResponseEntity.ok("Sukces! Zaimportowano dane.");
+            return ResponseEntity.ok(String.format("Sukces! Zaimportowano dane. Dodano książek: %d, pominięto: %d.",
+                    result.getBooksAdded(), result.getBooksAlreadyOnShelf() + result.getUnknownBooks()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Błąd importu: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/jobs/export")
+    public ResponseEntity<BackupJobDTO> submitExportJob(@RequestParam(defaultValue = "json") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip,
+                                                        Principal principal) {
+        User user = userService.getUserByUsername(principal.getName());
+        BackupJobDTO job = backupJobService.submitExport(user.getId(), format, gzip);
+        return ResponseEntity.accepted().location(jobLocation(job)).body(job);
+    }
+
+    @PostMapping(value = "/jobs/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitImportJob(@RequestParam("file") MultipartFile file,
+                                             Principal principal) throws IOException {
+        if (file.isEmpty()) return ResponseEntity.badRequest().body("Plik pusty");
+
+        User user = userService.getUserByUsername(principal.getName());
+        BackupJobDTO job;
+        try (InputStream content = file.getInputStream()) {
+            job = backupJobService.submitImport(user.getId(), content);
+        }
+        return ResponseEntity.accepted().location(jobLocation(job)).body(job);
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<BackupJobDTO>> getJobs(Principal principal) {
+        User user = userService.getUserByUsername(principal.getName());
+        return ResponseEntity.ok(backupJobService.getJobs(user.getId()));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<BackupJobDTO> getJob(@PathVariable String jobId, Principal principal) {
+        User user = userService.getUserByUsername(principal.getName());
+        return ResponseEntity.of(backupJobService.getJob(user.getId(), jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadJobResult(@PathVariable String jobId, Principal principal) {
+        User user = userService.getUserByUsername(principal.getName());
+        return backupJobService.getResultFile(user.getId(), jobId)
+                .map(file -> {
+                    String filename = file.getFileName().toString();
+                    String extension = filename.substring(filename.indexOf('.'));
+                    MediaType mediaType = extension.endsWith(".gz") ? GZIP
+                            : extension.equals(".csv") ? MediaType.TEXT_PLAIN
+                            : extension.equals(".pdf") ? MediaType.APPLICATION_PDF : MediaType.APPLICATION_JSON;
+                    return ResponseEntity.ok()
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    "attachment; filename=\"user_backup" + extension + "\"")
+                            .contentType(mediaType)
+                            .<Resource>body(new FileSystemResource(file));
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static URI jobLocation(BackupJobDTO job) {
+        return URI.create("/api/v1/backup/jobs/" + job.getId());
+    }
+
+    private static StreamingResponseBody text(String content) {
+        return out -> out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,8 +1,10 @@
 package com.booklovers.app.controller;
 
-import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.dto.BookExplorePageDTO;
 import com.booklovers.app.dto.BookStatsDTO;
+import com.booklovers.app.dto.BookSuggestionDTO;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.service.BookSearchService;
 import com.booklovers.app.service.BookService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,9 +19,11 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookSearchService bookSearchService;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookSearchService bookSearchService) {
         this.bookService = bookService;
+        this.bookSearchService = bookSearchService;
     }
 
     @GetMapping
@@ -29,8 +33,16 @@ public class BookController {
     }
 
     @GetMapping("/explore")
-    public List<BookExploreDTO> exploreBooks(@RequestParam(required = false) String query) {
-        return bookService.exploreBooks(query);
+    public BookExplorePageDTO exploreBooks(@RequestParam(required = false) String query,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return bookService.exploreBooks(query, cursor, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<BookSuggestionDTO> suggestBooks(@RequestParam String query,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return bookSearchService.suggest(query, limit);
     }
 
     @GetMapping("/{bookId}/stats")
@@ -1,7 +1,10 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.BookExplorePageDTO;
 import com.booklovers.app.dto.ReviewRequest;
+import com.booklovers.app.jfr.BookDetailsEvent;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
 import com.booklovers.app.model.Review;
 import com.booklovers.app.model.Shelf;
 import com.booklovers.app.service.BookService;
@@ -30,8 +33,13 @@ public class BookWebController {
     }
 
     @GetMapping
-    public String listBooks(@RequestParam(required = false) String query, Model model) {
-        model.addAttribute("books", bookService.exploreBooks(query));
+    public String listBooks(@RequestParam(required = false) String query,
+                            @RequestParam(required = false) String cursor,
+                            Model model) {
+        BookExplorePageDTO page = bookService.exploreBooks(query, cursor, BookService.EXPLORE_PAGE_SIZE);
+        model.addAttribute("books", page.getBooks());
+        model.addAttribute("nextCursor", page.getNextCursor());
+        model.addAttribute("cursor", cursor);
         model.addAttribute("query", query);
         return "books/list";
     }
@@ -39,32 +47,36 @@ public class BookWebController {
     @GetMapping("/{id}")
     public String getBookDetails(@PathVariable Long id, Model model,
                                  @AuthenticationPrincipal UserDetails currentUser) {
+        BookDetailsEvent event = new BookDetailsEvent();
+        event.begin();
 
         Book book = bookService.getBookById(id);
         List<Review> reviews = bookService.getReviewsForBook(id);
-
-        double averageRating = reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
+        BookRatingSummary summary = bookService.getRatingSummary(id);
 
         var ratingDistribution = new TreeMap<Integer, Long>(java.util.Collections.reverseOrder());
-        for (int i = 10; i >= 1; i--) ratingDistribution.put(i, 0L);
-        for (Review r : reviews) ratingDistribution.put(r.getRating(), ratingDistribution.get(r.getRating()) + 1);
+        for (int i = 10; i >= 1; i--) ratingDistribution.put(i, summary.getBucket(i));
 
         model.addAttribute("book", book);
         model.addAttribute("reviews", reviews);
-        model.addAttribute("averageRating", String.format("%.1f", averageRating));
-        model.addAttribute("totalReviews", reviews.size());
+        model.addAttribute("averageRating", String.format("%.1f", summary.getAverageRating()));
+        model.addAttribute("totalReviews", summary.getReviewCount());
         model.addAttribute("ratingDistribution", ratingDistribution);
         model.addAttribute("reviewRequest", new ReviewRequest());
 
         if (currentUser != null) {
             List<Shelf> userShelves = shelfService.getAllShelvesForUser(currentUser.getUsername());
             model.addAttribute("userShelves", userShelves);
+            event.userShelves = userShelves.size();
 
             if(bookService.hasUserReviewedBook(id, currentUser.getUsername())) {
                 model.addAttribute("userHasReviewed", true);
             }
         }
 
+        event.bookId = id;
+        event.reviews = reviews.size();
+        event.commit();
         return "books/details";
     }
 
@@ -1,7 +1,13 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.BulkShelfRequest;
+import com.booklovers.app.dto.BulkShelfResultDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.dto.ShelfActivityPageDTO;
 import com.booklovers.app.model.Shelf;
+import com.booklovers.app.service.ShelfActivityService;
 import com.booklovers.app.service.ShelfService;
+import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -12,9 +18,11 @@ import java.util.List;
 public class ShelfController {
 
     private final ShelfService shelfService;
+    private final ShelfActivityService shelfActivityService;
 
-    public ShelfController(ShelfService shelfService) {
+    public ShelfController(ShelfService shelfService, ShelfActivityService shelfActivityService) {
         this.shelfService = shelfService;
+        this.shelfActivityService = shelfActivityService;
     }
 
     @GetMapping
@@ -29,8 +37,38 @@ public class ShelfController {
 
         shelfService.addBookToShelfByCode(principal.getName(), shelfCode, bookId);
     }
+
+    @PostMapping("/code/{shelfCode}/books/bulk")
+    public BulkShelfResultDTO addBooksByCode(@PathVariable String shelfCode,
+                                             @Valid @RequestBody BulkShelfRequest request,
+                                             Principal principal) {
+        return shelfService.addBooksToShelf(principal.getName(), shelfCode, request.getBookIds());
+    }
+
+    @PostMapping("/code/{shelfCode}/books/bulk-remove")
+    public BulkShelfResultDTO removeBooksByCode(@PathVariable String shelfCode,
+                                                @Valid @RequestBody BulkShelfRequest request,
+                                                Principal principal) {
+        return shelfService.removeBooksFromShelf(principal.getName(), shelfCode, request.getBookIds());
+    }
+
+    @PostMapping("/code/{shelfCode}/books/bulk-move")
+    public BulkShelfResultDTO moveBooksByCode(@PathVariable String shelfCode,
+                                              @RequestParam("from") String fromShelfCode,
+                                              @Valid @RequestBody BulkShelfRequest request,
+                                              Principal principal) {
+        return shelfService.moveBooksBetweenShelves(principal.getName(), fromShelfCode, shelfCode, request.getBookIds());
+    }
+
     @GetMapping("/explore")
-    public List<com.booklovers.app.dto.ExploreDTO> getExplorePage() {
-        return shelfService.getExplorePage();
+    public ExplorePageDTO getExplorePage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "20") int size) {
+        return shelfService.getExplorePage(cursor, size);
+    }
+
+    @GetMapping("/activity")
+    public ShelfActivityPageDTO getRecentActivity(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int size) {
+        return shelfActivityService.getRecentActivity(cursor, size);
     }
-}
\ No newline at end of file
+}
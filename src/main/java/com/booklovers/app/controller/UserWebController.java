@@ -17,13 +17,17 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Controller
 public class UserWebController {
 
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
     private final UserService userService;
     private final ShelfService shelfService;
     private final BackupService backupService;
@@ -68,35 +72,40 @@ public class UserWebController {
     }
 
     @GetMapping("/profile/export")
-    public ResponseEntity<String> exportProfile(@AuthenticationPrincipal UserDetails userDetails,
-                                                @RequestParam(defaultValue = "json") String format) {
+    public ResponseEntity<StreamingResponseBody> exportProfile(@AuthenticationPrincipal UserDetails userDetails,
+                                                               @RequestParam(defaultValue = "json") String format,
+                                                               @RequestParam(defaultValue = "false") boolean gzip) {
         try {
-            // --- POPRAWKA: Pobieramy ID użytkownika ---
             User user = userService.getUserByUsername(userDetails.getUsername());
             Long userId = user.getId();
-            // ------------------------------------------
 
-            String content;
-            String filename;
-            MediaType mediaType;
+            if ("pdf".equalsIgnoreCase(format)) {
+                StreamingResponseBody pdf = out -> backupService.writeUserDataAsPdf(userId, out);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user_backup.pdf\"")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(pdf);
+            }
 
             if ("csv".equalsIgnoreCase(format)) {
-                // Przekazujemy ID (Long), nie username (String)
-                content = backupService.exportUserDataToCSV(userId);
-                filename = "user_backup.csv";
-                mediaType = MediaType.TEXT_PLAIN;
-            } else {
-                // Przekazujemy ID (Long)
-                content = backupService.exportUserData(userId);
-                filename = "user_backup.json";
-                mediaType = MediaType.APPLICATION_JSON;
+                StreamingResponseBody csv = out -> backupService.writeUserDataAsCsv(userId, out, gzip);
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"user_backup.csv" + (gzip ? ".gz" : "") + "\"")
+                        .contentType(gzip ? GZIP : MediaType.TEXT_PLAIN)
+                        .body(csv);
             }
+
+            // JSON jest zapisywany bezpośrednio do odpowiedzi, bez budowania całego dokumentu w pamięci
+            StreamingResponseBody body = out -> backupService.writeUserData(userId, out);
             return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(mediaType)
-                    .body(content);
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user_backup.json\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().body("Błąd eksportu: " + e.getMessage());
+            return ResponseEntity.internalServerError()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(text("Błąd eksportu: " + e.getMessage()));
         }
     }
 
@@ -110,10 +119,10 @@ public class UserWebController {
                 Long userId = user.getId();
                 // ------------------------------------------
 
-                String content = new String(file.getBytes(), StandardCharsets.UTF_8);
-
-                // Przekazujemy ID (Long)
-                backupService.importUserData(userId, content);
+                // Plik jest przetwarzany strumieniowo, bez wczytywania całości do pamięci
+                try (InputStream content = file.getInputStream()) {
+                    backupService.importUserData(userId, content);
+                }
 
                 return "redirect:/profile?imported=true";
             }
@@ -146,4 +155,8 @@ public class UserWebController {
         }
         return "redirect:/?msg=AccountDeleted";
     }
-}
\ No newline at end of file
+
+    private static StreamingResponseBody text(String content) {
+        return out -> out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+package com.booklovers.app.dto;
+
+import com.booklovers.app.model.BackupJobStatus;
+import com.booklovers.app.model.BackupJobType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BackupJobDTO {
+    private String id;
+    private BackupJobType type;
+    private BackupJobStatus status;
+    private long processed;
+    private long total;
+    private Integer percent;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private ImportResultDTO importResult;
+}
@@ -0,0 +1,15 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookExplorePageDTO {
+    private List<BookExploreDTO> books;
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSuggestionDTO {
+    private Long id;
+    private String title;
+    private String author;
+    private long reviewCount;
+}
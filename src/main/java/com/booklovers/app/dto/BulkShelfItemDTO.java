@@ -0,0 +1,15 @@
+package com.booklovers.app.dto;
+
+import com.booklovers.app.model.BulkShelfStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkShelfItemDTO {
+    private Long bookId;
+    private BulkShelfStatus status;
+    private String previousShelfCode;
+}
@@ -0,0 +1,20 @@
+package com.booklovers.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkShelfRequest {
+
+    @NotEmpty(message = "Lista książek nie może być pusta")
+    @Size(max = 1000, message = "Maksymalnie 1000 książek w jednym żądaniu")
+    private List<@NotNull(message = "ID książki nie może być puste") Long> bookIds;
+}
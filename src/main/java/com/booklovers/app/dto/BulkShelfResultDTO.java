@@ -0,0 +1,16 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkShelfResultDTO {
+    private String shelfCode;
+    private int changed;
+    private List<BulkShelfItemDTO> items;
+}
@@ -0,0 +1,17 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DumpResultDTO {
+    private String fileName;
+    private long sizeBytes;
+    private Map<String, Long> rows;
+    private long durationMs;
+}
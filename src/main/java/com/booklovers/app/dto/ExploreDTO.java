@@ -12,6 +12,7 @@ public class ExploreDTO {
     public static class ShelfSummary {
         private String shelfName;
         private String shelfCode;
+        private long bookCount;
         private List<BookSummary> books;
     }
 
@@ -0,0 +1,15 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExplorePageDTO {
+    private List<ExploreDTO> users;
+    private String nextCursor;
+}
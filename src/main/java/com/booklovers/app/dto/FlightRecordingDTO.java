@@ -0,0 +1,18 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlightRecordingDTO {
+    private long id;
+    private String state;
+    private Instant startTime;
+    private long maxDurationSeconds;
+    private long sizeBytes;
+}
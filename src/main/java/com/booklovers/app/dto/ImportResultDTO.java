@@ -0,0 +1,15 @@
+package com.booklovers.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResultDTO {
+    private int shelvesCreated;
+    private int booksAdded;
+    private int booksAlreadyOnShelf;
+    private int unknownBooks;
+}
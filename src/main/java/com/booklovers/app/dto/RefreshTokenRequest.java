@@ -0,0 +1,11 @@
+package com.booklovers.app.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "Token odświeżania jest wymagany")
+    private String refreshToken;
+}
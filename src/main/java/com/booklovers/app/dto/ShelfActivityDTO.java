@@ -0,0 +1,23 @@
+package com.booklovers.app.dto;
+
+import com.booklovers.app.model.ActivityType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShelfActivityDTO {
+    private ActivityType type;
+    private String username;
+    private Long bookId;
+    private String bookTitle;
+    private String bookAuthor;
+    private String shelfCode;
+    private String previousShelfCode;
+    private Integer rating;
+    private LocalDateTime createdAt;
+}
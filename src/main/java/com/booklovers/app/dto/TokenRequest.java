@@ -0,0 +1,14 @@
+package com.booklovers.app.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TokenRequest {
+
+    @NotBlank(message = "Login jest wymagany")
+    private String username;
+
+    @NotBlank(message = "Hasło jest wymagane")
+    private String password;
+}
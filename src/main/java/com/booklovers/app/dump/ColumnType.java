@@ -0,0 +1,17 @@
+package com.booklovers.app.dump;
+
+public enum ColumnType {
+    LONG,
+    INT,
+    STRING,
+    BOOLEAN,
+    TIMESTAMP;
+
+    static ColumnType fromCode(int code) {
+        ColumnType[] values = values();
+        if (code < 0 || code >= values.length) {
+            throw new IllegalArgumentException("Nieznany typ kolumny w zrzucie: " + code);
+        }
+        return values[code];
+    }
+}
@@ -0,0 +1,4 @@
+package com.booklovers.app.dump;
+
+public record DumpColumn(String name, ColumnType type) {
+}
@@ -0,0 +1,26 @@
+package com.booklovers.app.dump;
+
+import java.nio.charset.StandardCharsets;
+
+// Układ pliku:
+//   nagłówek:  "BLDUMP" + bajt wersji
+//   tabela:    TABLE, nazwa, liczba kolumn, (nazwa, typ) dla każdej kolumny,
+//              potem wiersze ROW + bitmapa nulli + wartości niepuste, na końcu END + liczba wierszy
+//   koniec:    END
+// Liczby całkowite są zapisywane jako varint w kodowaniu zigzag, napisy jako długość (varint) + UTF-8,
+// znaczniki czasu jako sekundy epoki (UTC) + nanosekundy.
+final class DumpFormat {
+
+    static final byte[] MAGIC = "BLDUMP".getBytes(StandardCharsets.US_ASCII);
+    static final byte VERSION = 1;
+
+    static final byte END = 0;
+    static final byte TABLE = 1;
+    static final byte ROW = 2;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+
+    private DumpFormat() {
+    }
+}
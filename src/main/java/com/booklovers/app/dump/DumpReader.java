@@ -0,0 +1,167 @@
+package com.booklovers.app.dump;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Nie zamyka kanału - właścicielem pozostaje wywołujący.
+public class DumpReader {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DumpFormat.BUFFER_SIZE).flip();
+
+    private List<DumpColumn> columns;
+    private long rowsInTable;
+    private boolean finished;
+
+    public DumpReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        byte[] magic = readBytes(DumpFormat.MAGIC.length);
+        if (!Arrays.equals(magic, DumpFormat.MAGIC)) {
+            throw new IOException("Plik nie jest zrzutem bazy danych");
+        }
+        byte version = readByte();
+        if (version != DumpFormat.VERSION) {
+            throw new IOException("Nieobsługiwana wersja zrzutu: " + version);
+        }
+    }
+
+    // Zwraca null po ostatniej tabeli.
+    public DumpTable nextTable() throws IOException {
+        if (columns != null) {
+            throw new IllegalStateException("Poprzednia tabela nie została doczytana");
+        }
+        if (finished) {
+            return null;
+        }
+        byte marker = readByte();
+        if (marker == DumpFormat.END) {
+            finished = true;
+            return null;
+        }
+        if (marker != DumpFormat.TABLE) {
+            throw corrupted();
+        }
+        String name = readString();
+        int count = (int) readVarLong();
+        List<DumpColumn> tableColumns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String column = readString();
+            tableColumns.add(new DumpColumn(column, ColumnType.fromCode(readByte())));
+        }
+        columns = List.copyOf(tableColumns);
+        rowsInTable = 0;
+        return new DumpTable(name, columns);
+    }
+
+    // Zwraca null na końcu bieżącej tabeli.
+    public Object[] nextRow() throws IOException {
+        if (columns == null) {
+            throw new IllegalStateException("Brak otwartej tabeli");
+        }
+        byte marker = readByte();
+        if (marker == DumpFormat.END) {
+            long expected = readVarLong();
+            if (expected != rowsInTable) {
+                throw new IOException("Niezgodna liczba wierszy: zapisano " + expected + ", odczytano " + rowsInTable);
+            }
+            columns = null;
+            return null;
+        }
+        if (marker != DumpFormat.ROW) {
+            throw corrupted();
+        }
+
+        byte[] nulls = readBytes((columns.size() + 7) / 8);
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            if ((nulls[i / 8] & (1 << (i % 8))) == 0) {
+                values[i] = readValue(columns.get(i).type());
+            }
+        }
+        rowsInTable++;
+        return values;
+    }
+
+    private Object readValue(ColumnType type) throws IOException {
+        return switch (type) {
+            case LONG -> unzigzag(readVarLong());
+            case INT -> Math.toIntExact(unzigzag(readVarLong()));
+            case STRING -> readString();
+            case BOOLEAN -> readByte() != 0;
+            case TIMESTAMP -> LocalDateTime.ofEpochSecond(unzigzag(readVarLong()),
+                    Math.toIntExact(readVarLong()), ZoneOffset.UTC);
+        };
+    }
+
+    private String readString() throws IOException {
+        long length = readVarLong();
+        if (length < 0 || length > DumpFormat.MAX_STRING_BYTES) {
+            throw corrupted();
+        }
+        return new String(readBytes((int) length), StandardCharsets.UTF_8);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw corrupted();
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        if (length <= buffer.capacity()) {
+            require(length);
+            buffer.get(bytes);
+            return bytes;
+        }
+        int buffered = buffer.remaining();
+        buffer.get(bytes, 0, buffered);
+        ByteBuffer rest = ByteBuffer.wrap(bytes, buffered, length - buffered);
+        while (rest.hasRemaining()) {
+            if (channel.read(rest) < 0) {
+                throw new EOFException("Nieoczekiwany koniec pliku zrzutu");
+            }
+        }
+        return bytes;
+    }
+
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Nieoczekiwany koniec pliku zrzutu");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static IOException corrupted() {
+        return new IOException("Uszkodzony plik zrzutu");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
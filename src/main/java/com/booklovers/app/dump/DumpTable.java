@@ -0,0 +1,14 @@
+package com.booklovers.app.dump;
+
+import java.util.List;
+
+public record DumpTable(String name, List<DumpColumn> columns) {
+
+    public DumpTable(String name, DumpColumn... columns) {
+        this(name, List.of(columns));
+    }
+
+    public List<String> columnNames() {
+        return columns.stream().map(DumpColumn::name).toList();
+    }
+}
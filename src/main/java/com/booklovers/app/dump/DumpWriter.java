@@ -0,0 +1,155 @@
+package com.booklovers.app.dump;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// Nie zamyka kanału - właścicielem pozostaje wywołujący.
+public class DumpWriter {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DumpFormat.BUFFER_SIZE);
+    private long bytesWritten;
+
+    private List<DumpColumn> columns;
+    private long rowsInTable;
+
+    public DumpWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        writeBytes(DumpFormat.MAGIC);
+        writeByte(DumpFormat.VERSION);
+    }
+
+    public void beginTable(DumpTable table) throws IOException {
+        if (columns != null) {
+            throw new IllegalStateException("Poprzednia tabela nie została zamknięta");
+        }
+        writeByte(DumpFormat.TABLE);
+        writeString(table.name());
+        writeVarLong(table.columns().size());
+        for (DumpColumn column : table.columns()) {
+            writeString(column.name());
+            writeByte((byte) column.type().ordinal());
+        }
+        columns = table.columns();
+        rowsInTable = 0;
+    }
+
+    public void writeRow(Object[] values) throws IOException {
+        if (columns == null) {
+            throw new IllegalStateException("Wiersz poza tabelą");
+        }
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Oczekiwano " + columns.size() + " wartości, otrzymano " + values.length);
+        }
+        writeByte(DumpFormat.ROW);
+
+        byte[] nulls = new byte[(values.length + 7) / 8];
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                nulls[i / 8] |= (byte) (1 << (i % 8));
+            }
+        }
+        writeBytes(nulls);
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                writeValue(columns.get(i).type(), values[i]);
+            }
+        }
+        rowsInTable++;
+    }
+
+    public long endTable() throws IOException {
+        if (columns == null) {
+            throw new IllegalStateException("Brak otwartej tabeli");
+        }
+        writeByte(DumpFormat.END);
+        writeVarLong(rowsInTable);
+        columns = null;
+        return rowsInTable;
+    }
+
+    public void finish() throws IOException {
+        if (columns != null) {
+            throw new IllegalStateException("Tabela nie została zamknięta");
+        }
+        writeByte(DumpFormat.END);
+        flush();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    private void writeValue(ColumnType type, Object value) throws IOException {
+        switch (type) {
+            case LONG, INT -> writeVarLong(zigzag(((Number) value).longValue()));
+            case STRING -> writeString((String) value);
+            case BOOLEAN -> writeByte((byte) ((Boolean) value ? 1 : 0));
+            case TIMESTAMP -> {
+                LocalDateTime timestamp = (LocalDateTime) value;
+                writeVarLong(zigzag(timestamp.toEpochSecond(ZoneOffset.UTC)));
+                writeVarLong(timestamp.getNano());
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void writeByte(byte value) throws IOException {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length <= buffer.remaining()) {
+            buffer.put(bytes);
+            return;
+        }
+        flush();
+        if (bytes.length <= buffer.capacity()) {
+            buffer.put(bytes);
+            return;
+        }
+        ByteBuffer large = ByteBuffer.wrap(bytes);
+        while (large.hasRemaining()) {
+            bytesWritten += channel.write(large);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
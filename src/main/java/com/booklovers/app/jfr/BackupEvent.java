@@ -0,0 +1,47 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.function.LongConsumer;
+
+@Name(BackupEvent.NAME)
+@Label("Backup")
+@Description("Eksport lub import kopii biblioteki użytkownika")
+@Category({"Book Lovers", "Kopie zapasowe"})
+public class BackupEvent extends Event {
+
+    public static final String NAME = "booklovers.Backup";
+
+    @Label("Operacja")
+    public String operation;
+
+    @Label("Format")
+    public String format;
+
+    @Label("ID użytkownika")
+    public long userId;
+
+    @Label("Książki")
+    public long books;
+
+    public static BackupEvent begin(String operation, String format, Long userId) {
+        BackupEvent event = new BackupEvent();
+        event.operation = operation;
+        event.format = format;
+        event.userId = userId;
+        event.begin();
+        return event;
+    }
+
+    // Liczy książki przekazywane do raportu postępu eksportu.
+    public LongConsumer counting(LongConsumer progress) {
+        return written -> {
+            books += written;
+            progress.accept(written);
+        };
+    }
+}
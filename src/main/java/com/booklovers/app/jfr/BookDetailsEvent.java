@@ -0,0 +1,25 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(BookDetailsEvent.NAME)
+@Label("Book Details")
+@Description("Zbieranie danych strony szczegółów książki")
+@Category({"Book Lovers", "Katalog"})
+public class BookDetailsEvent extends Event {
+
+    public static final String NAME = "booklovers.BookDetails";
+
+    @Label("ID książki")
+    public long bookId;
+
+    @Label("Recenzje")
+    public int reviews;
+
+    @Label("Półki użytkownika")
+    public int userShelves;
+}
@@ -0,0 +1,28 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ExploreEvent.NAME)
+@Label("Explore")
+@Description("Strona katalogu książek, wyszukiwanie lub feed półek użytkowników")
+@Category({"Book Lovers", "Katalog"})
+public class ExploreEvent extends Event {
+
+    public static final String NAME = "booklovers.Explore";
+
+    @Label("Rodzaj")
+    public String kind;
+
+    @Label("Zapytanie")
+    public String query;
+
+    @Label("Kursor")
+    public String cursor;
+
+    @Label("Wiersze")
+    public int rows;
+}
@@ -0,0 +1,25 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(LoginEvent.NAME)
+@Label("Login")
+@Description("Logowanie formularzem lub wydanie tokenu API")
+@Category({"Book Lovers", "Bezpieczeństwo"})
+public class LoginEvent extends Event {
+
+    public static final String NAME = "booklovers.Login";
+
+    @Label("Użytkownik")
+    public String username;
+
+    @Label("Metoda")
+    public String method;
+
+    @Label("Sukces")
+    public boolean success;
+}
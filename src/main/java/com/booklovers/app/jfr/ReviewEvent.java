@@ -0,0 +1,25 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ReviewEvent.NAME)
+@Label("Review")
+@Description("Dodanie recenzji wraz z aktualizacją podsumowania ocen")
+@Category({"Book Lovers", "Recenzje"})
+public class ReviewEvent extends Event {
+
+    public static final String NAME = "booklovers.Review";
+
+    @Label("ID książki")
+    public long bookId;
+
+    @Label("Użytkownik")
+    public String username;
+
+    @Label("Ocena")
+    public int rating;
+}
@@ -0,0 +1,34 @@
+package com.booklovers.app.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ShelfMoveEvent.NAME)
+@Label("Shelf Move")
+@Description("Dodanie lub przeniesienie książek między półkami, łącznie z ponowieniami po konflikcie wersji")
+@Category({"Book Lovers", "Półki"})
+public class ShelfMoveEvent extends Event {
+
+    public static final String NAME = "booklovers.ShelfMove";
+
+    @Label("Użytkownik")
+    public String username;
+
+    @Label("Półka źródłowa")
+    public String sourceShelf;
+
+    @Label("Półka docelowa")
+    public String targetShelf;
+
+    @Label("Książki")
+    public int books;
+
+    @Label("Zmienione")
+    public int changed;
+
+    @Label("Próby")
+    public int attempts;
+}
@@ -0,0 +1,47 @@
+package com.booklovers.app.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Dodaje do każdej odpowiedzi nagłówek Server-Timing (widoczny w narzędziach deweloperskich przeglądarki).
+// Domyślnie wyłączony - włączają go tylko profile dev i test.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+
+    public ServerTimingFilter(@Value("${app.server-timing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTimings timings = ServerTimings.start();
+        ServerTimingResponseWrapper wrapper = new ServerTimingResponseWrapper(response, timings);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            timings.finish();
+            // Odpowiedzi bez treści (np. 204) nie przechodzą przez strumień, więc nagłówek dopisujemy tutaj.
+            // Przy eksportach asynchronicznych też zapisujemy go już w wątku żądania (bez czasu strumieniowania),
+            // żeby wątek eksportu nie modyfikował nagłówków równolegle.
+            wrapper.writeHeader();
+        }
+    }
+}
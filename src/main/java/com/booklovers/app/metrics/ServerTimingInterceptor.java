@@ -0,0 +1,30 @@
+package com.booklovers.app.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+// Wyznacza granice etapów dla Server-Timing: wejście do kontrolera i początek renderowania widoku.
+@Component
+public class ServerTimingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ServerTimings timings = ServerTimings.current();
+        if (timings != null) {
+            timings.handlerStarted();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        ServerTimings timings = ServerTimings.current();
+        if (timings != null && modelAndView != null && modelAndView.hasView()) {
+            timings.renderStarted();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.booklovers.app.metrics;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+// Podział czasu jednego żądania na uwierzytelnianie, bazę, serwisy i renderowanie widoku (nagłówek Server-Timing).
+public final class ServerTimings {
+
+    private static final ThreadLocal<ServerTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final SqlStatementCounter.Scope sql = SqlStatementCounter.open();
+    private long handlerStartNanos;
+    private long renderStartNanos;
+    private long serviceStartNanos;
+    private long serviceNanos;
+    private int serviceDepth;
+
+    private ServerTimings() {
+    }
+
+    static ServerTimings start() {
+        ServerTimings timings = new ServerTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static ServerTimings current() {
+        return CURRENT.get();
+    }
+
+    void finish() {
+        CURRENT.remove();
+        sql.close();
+    }
+
+    void handlerStarted() {
+        if (handlerStartNanos == 0) {
+            handlerStartNanos = System.nanoTime();
+        }
+    }
+
+    void renderStarted() {
+        renderStartNanos = System.nanoTime();
+    }
+
+    // Serwisy wołają się nawzajem przez proxy, więc liczymy tylko najbardziej zewnętrzne wywołanie.
+    void serviceEntered() {
+        if (serviceDepth++ == 0) {
+            serviceStartNanos = System.nanoTime();
+        }
+    }
+
+    void serviceExited() {
+        if (serviceDepth > 0 && --serviceDepth == 0) {
+            serviceNanos += System.nanoTime() - serviceStartNanos;
+        }
+    }
+
+    String toHeaderValue() {
+        long now = System.nanoTime();
+        StringJoiner header = new StringJoiner(", ");
+        // Do wejścia do kontrolera żądanie przechodzi głównie przez filtry Spring Security (w tym BCrypt).
+        header.add(metric("auth", (handlerStartNanos != 0 ? handlerStartNanos : now) - startNanos));
+        header.add(metric("db", sql.getNanos()) + ";desc=\"" + sql.getStatements() + " SQL\"");
+        header.add(metric("service", serviceNanos));
+        if (renderStartNanos != 0) {
+            header.add(metric("render", now - renderStartNanos));
+        }
+        header.add(metric("total", now - startNanos));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return name + ";dur=" + String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
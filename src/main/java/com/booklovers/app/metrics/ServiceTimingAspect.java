@@ -0,0 +1,50 @@
+package com.booklovers.app.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+// Mierzy czas każdej publicznej metody serwisów jako timer app.service (tagi: class, method, exception).
+// Endpointy HTTP mierzy już Actuator (http.server.requests), więc tu zostaje tylko warstwa serwisów.
+// Ten sam czas trafia do segmentu "service" nagłówka Server-Timing.
+@Aspect
+@Component
+public class ServiceTimingAspect {
+
+    public static final String METRIC_NAME = "app.service";
+
+    private final MeterRegistry meterRegistry;
+
+    public ServiceTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.booklovers.app.service..*) && @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ServerTimings timings = ServerTimings.current();
+        if (timings != null) {
+            timings.serviceEntered();
+        }
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (timings != null) {
+                timings.serviceExited();
+            }
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Czas wykonania metod serwisów")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
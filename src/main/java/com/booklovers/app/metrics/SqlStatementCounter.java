@@ -0,0 +1,86 @@
+package com.booklovers.app.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Liczy zapytania SQL wykonane w bieżącym wątku między open() a close().
+// Zakresy mogą się zagnieżdżać (filtr żądania i asercja w teście), każde zapytanie trafia do wszystkich otwartych.
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        Scope scope = new Scope();
+        scopes.push(scope);
+        return scope;
+    }
+
+    static void record(String sql, long nanos) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        for (Scope scope : scopes) {
+            scope.record(sql, nanos);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+        private int statements;
+        private long nanos;
+
+        private Scope() {
+        }
+
+        private void record(String sql, long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+            executionsBySql.merge(sql, 1, Integer::sum);
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public Map<String, Integer> getExecutionsBySql() {
+            return Map.copyOf(executionsBySql);
+        }
+
+        // To samo zapytanie powtórzone wiele razy w jednym żądaniu to typowy ślad N+1.
+        public Optional<Map.Entry<String, Integer>> getMostRepeated() {
+            return executionsBySql.entrySet().stream()
+                    .max(Comparator.comparingInt(Map.Entry::getValue))
+                    .map(entry -> Map.entry(entry.getKey(), entry.getValue()));
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            if (scopes == null) {
+                return;
+            }
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.booklovers.app.model;
+
+public enum ActivityType {
+    ADDED,
+    MOVED,
+    REMOVED,
+    REVIEWED
+}
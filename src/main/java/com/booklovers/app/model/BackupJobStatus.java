@@ -0,0 +1,8 @@
+package com.booklovers.app.model;
+
+public enum BackupJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.booklovers.app.model;
+
+public enum BackupJobType {
+    EXPORT_JSON,
+    EXPORT_CSV,
+    EXPORT_PDF,
+    IMPORT_JSON
+}
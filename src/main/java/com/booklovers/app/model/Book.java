@@ -1,5 +1,6 @@
 package com.booklovers.app.model;
 
+import com.booklovers.app.search.IsbnNormalizer;
 import jakarta.persistence.*;
 import lombok.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -7,6 +8,7 @@ import java.util.List;
 import java.util.ArrayList; // <--- Import
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_book_isbn13", columnNames = "isbn13"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,15 +21,19 @@ public class Book {
     private String author;
     private String isbn;
 
+    @Column(length = 13)
+    private String isbn13;
 
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL)
     @JsonIgnore
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Review> reviews;
 
     @ManyToMany(mappedBy = "books")
     @JsonIgnore
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Shelf> shelves;
 
     public Book(Long id, String title, String author, String isbn) {
@@ -39,4 +45,10 @@ public class Book {
         this.reviews = new ArrayList<>();
         this.shelves = new ArrayList<>();
     }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeIsbn() {
+        this.isbn13 = IsbnNormalizer.toIsbn13(isbn);
+    }
 }
\ No newline at end of file
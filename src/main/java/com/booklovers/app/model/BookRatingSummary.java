@@ -0,0 +1,84 @@
+package com.booklovers.app.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Entity
+@Data
+@NoArgsConstructor
+public class BookRatingSummary {
+
+    @Id
+    private Long bookId;
+
+    private long reviewCount;
+    private long ratingSum;
+
+    private long rating1;
+    private long rating2;
+    private long rating3;
+    private long rating4;
+    private long rating5;
+    private long rating6;
+    private long rating7;
+    private long rating8;
+    private long rating9;
+    private long rating10;
+
+    public BookRatingSummary(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public double getAverageRating() {
+        if (reviewCount == 0) return 0.0;
+        return Math.round((double) ratingSum / reviewCount * 10.0) / 10.0;
+    }
+
+    public long getBucket(int rating) {
+        return switch (rating) {
+            case 1 -> rating1;
+            case 2 -> rating2;
+            case 3 -> rating3;
+            case 4 -> rating4;
+            case 5 -> rating5;
+            case 6 -> rating6;
+            case 7 -> rating7;
+            case 8 -> rating8;
+            case 9 -> rating9;
+            case 10 -> rating10;
+            default -> throw new IllegalArgumentException("Ocena poza zakresem 1-10: " + rating);
+        };
+    }
+
+    public void apply(int rating, long delta) {
+        reviewCount += delta;
+        ratingSum += delta * rating;
+        switch (rating) {
+            case 1 -> rating1 += delta;
+            case 2 -> rating2 += delta;
+            case 3 -> rating3 += delta;
+            case 4 -> rating4 += delta;
+            case 5 -> rating5 += delta;
+            case 6 -> rating6 += delta;
+            case 7 -> rating7 += delta;
+            case 8 -> rating8 += delta;
+            case 9 -> rating9 += delta;
+            case 10 -> rating10 += delta;
+            default -> throw new IllegalArgumentException("Ocena poza zakresem 1-10: " + rating);
+        }
+    }
+
+    public Map<Integer, Long> getDistribution() {
+        Map<Integer, Long> distribution = new TreeMap<>();
+        for (int rating = 1; rating <= 10; rating++) {
+            long count = getBucket(rating);
+            if (count > 0) distribution.put(rating, count);
+        }
+        return distribution;
+    }
+}
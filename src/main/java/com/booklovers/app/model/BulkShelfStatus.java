@@ -0,0 +1,11 @@
+package com.booklovers.app.model;
+
+public enum BulkShelfStatus {
+    ADDED,
+    MOVED,
+    REMOVED,
+    ALREADY_ON_SHELF,
+    NOT_ON_SHELF,
+    UNKNOWN_BOOK,
+    DUPLICATE
+}
@@ -2,7 +2,7 @@ package com.booklovers.app.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.util.List;
+import java.util.Set;
 
 @Entity
 @Data
@@ -16,13 +16,20 @@ public class Shelf {
 
     private String shelfCode;
 
+    // Set zamiast List: Hibernate dodaje i usuwa pojedyncze wiersze zamiast przepisywać całą półkę.
+    // Operacje na pojedynczych książkach idą przez ShelfMembershipRepository, bez ładowania kolekcji.
     @ManyToMany
     @JoinTable(
             name = "shelf_books",
             joinColumns = @JoinColumn(name = "shelf_id"),
-            inverseJoinColumns = @JoinColumn(name = "book_id")
+            inverseJoinColumns = @JoinColumn(name = "book_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_shelf_books", columnNames = {"shelf_id", "book_id"}),
+            indexes = @Index(name = "idx_shelf_books_book", columnList = "book_id")
     )
-    private List<Book> books;
+    @OrderBy("title ASC")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<Book> books;
 
     @ManyToOne
     @com.fasterxml.jackson.annotation.JsonIgnore
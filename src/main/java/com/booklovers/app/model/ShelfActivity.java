@@ -0,0 +1,37 @@
+package com.booklovers.app.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Wpisy są tylko dopisywane; nazwy są zdenormalizowane, więc historia przetrwa usunięcie książki lub konta.
+@Entity
+@Table(indexes = @Index(name = "idx_shelf_activity_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+public class ShelfActivity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ActivityType type;
+
+    private Long userId;
+    private String username;
+
+    private Long bookId;
+    private String bookTitle;
+    private String bookAuthor;
+
+    private String shelfCode;
+    private String previousShelfCode;
+    private Integer rating;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,7 @@ package com.booklovers.app.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.ArrayList;
 import java.util.List;
@@ -44,6 +45,13 @@ public class User {
     private List<Review> reviews = new ArrayList<>();
     @Column(nullable = false)
     private boolean locked = false;
+
+    // Wersja przynależności do półek systemowych; czytana i zmieniana wyłącznie przez ShelfMembershipRepository.
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long shelfVersion;
+
     public boolean isLocked() {
         return locked;
     }
@@ -0,0 +1,246 @@
+package com.booklovers.app.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Wielostronicowy dokument tekstowy PDF zapisywany strumieniowo: każda strona trafia do wyjścia, gdy się zapełni,
+// a offsety obiektów do tabeli xref są liczone na bieżąco. W pamięci trzymamy tylko bieżącą stronę
+// i po jednym offsecie (8 B) na obiekt, więc zużycie pamięci nie zależy od liczby wierszy.
+public class PdfTextWriter {
+
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int MARGIN = 50;
+    private static final int FONT_SIZE = 10;
+    private static final int HEADING_FONT_SIZE = 12;
+    private static final int LEADING = 14;
+    private static final int FOOTER_Y = 30;
+    static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+    static final int MAX_LINE_LENGTH = 95;
+
+    // Numery obiektów stałych; strona i ma obiekty FIRST_PAGE_OBJECT + 2i (strona) i + 2i + 1 (treść).
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int FONT_REGULAR = 3;
+    private static final int FONT_BOLD = 4;
+    private static final int ENCODING = 5;
+    private static final int INFO = 6;
+    private static final int FIRST_PAGE_OBJECT = 7;
+
+    private static final Map<Character, Byte> ENCODED = new HashMap<>();
+    private static final String DIFFERENCES;
+
+    // Czcionki standardowe mają polskie glify, ale WinAnsiEncoding ich nie obejmuje - przypisujemy je
+    // nieużywanym lub rzadkim kodom przez /Differences.
+    static {
+        Charset winAnsi = Charset.forName("windows-1252");
+        for (int code = 0xA0; code <= 0xFF; code++) {
+            ENCODED.put((char) code, (byte) code);
+        }
+        for (int code = 0x80; code < 0xA0; code++) {
+            String decoded = new String(new byte[]{(byte) code}, winAnsi);
+            if (decoded.length() == 1 && decoded.charAt(0) != '�' && decoded.charAt(0) != code) {
+                ENCODED.put(decoded.charAt(0), (byte) code);
+            }
+        }
+
+        int[] codes = {0x81, 0x8D, 0x8F, 0x90, 0x9D, 0x83, 0x88, 0x98, 0xA4, 0xA6, 0xA8, 0xAC, 0xB6, 0xAF, 0xB4, 0xB8};
+        String letters = "ĄąĆćĘęŁłŃńŚśŹźŻż";
+        String[] glyphs = {"Aogonek", "aogonek", "Cacute", "cacute", "Eogonek", "eogonek", "Lslash", "lslash",
+                "Nacute", "nacute", "Sacute", "sacute", "Zacute", "zacute", "Zdotaccent", "zdotaccent"};
+        StringBuilder differences = new StringBuilder();
+        for (int i = 0; i < codes.length; i++) {
+            ENCODED.values().remove((byte) codes[i]);
+            ENCODED.put(letters.charAt(i), (byte) codes[i]);
+            differences.append(codes[i]).append(" /").append(glyphs[i]).append(' ');
+        }
+        DIFFERENCES = differences.toString().trim();
+    }
+
+    private final OutputStream out;
+    private final String title;
+    private long position;
+    private long[] offsets = new long[64];
+    private int pageCount;
+
+    private final ByteArrayOutputStream page = new ByteArrayOutputStream(8 * 1024);
+    private int linesOnPage;
+    private boolean boldActive;
+
+    public PdfTextWriter(OutputStream out, String title) throws IOException {
+        this.out = out;
+        this.title = title;
+        // Komentarz z bajtami > 127 oznacza plik binarny dla narzędzi przesyłających dane
+        write("%PDF-1.4\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1));
+        writeObject(FONT_REGULAR, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding "
+                + ENCODING + " 0 R >>");
+        writeObject(FONT_BOLD, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding "
+                + ENCODING + " 0 R >>");
+        writeObject(ENCODING, "<< /Type /Encoding /BaseEncoding /WinAnsiEncoding /Differences ["
+                + DIFFERENCES + "] >>");
+    }
+
+    public void heading(String text) throws IOException {
+        // Nagłówek nie powinien zostać sam na dole strony
+        if (linesOnPage > LINES_PER_PAGE - 2) {
+            endPage();
+        }
+        appendLine(text, true);
+    }
+
+    public void line(String text) throws IOException {
+        appendLine(text, false);
+    }
+
+    public void blankLine() throws IOException {
+        if (linesOnPage > 0) {
+            appendLine("", boldActive);
+        }
+    }
+
+    public int getPageCount() {
+        return pageCount + (linesOnPage > 0 ? 1 : 0);
+    }
+
+    public long getBytesWritten() {
+        return position;
+    }
+
+    // Zamyka dokument: ostatnia strona, drzewo stron, katalog, tabela xref i trailer. Nie zamyka strumienia.
+    public void finish() throws IOException {
+        if (linesOnPage > 0 || pageCount == 0) {
+            endPage();
+        }
+
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(FIRST_PAGE_OBJECT + 2 * i).append(" 0 R ");
+        }
+        writeObject(PAGES, "<< /Type /Pages /Kids [" + kids.toString().trim() + "] /Count " + pageCount + " >>");
+        writeObject(CATALOG, "<< /Type /Catalog /Pages " + PAGES + " 0 R >>");
+        writeObject(INFO, "<< /Title " + utf16Hex(title) + " /Producer (BookLovers) >>");
+
+        int size = FIRST_PAGE_OBJECT + 2 * pageCount;
+        long xref = position;
+        StringBuilder table = new StringBuilder(size * 20 + 32);
+        table.append("xref\n0 ").append(size).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int object = 1; object < size; object++) {
+            table.append(String.format("%010d 00000 n \n", offsets[object]));
+        }
+        table.append("trailer\n<< /Size ").append(size)
+                .append(" /Root ").append(CATALOG).append(" 0 R /Info ").append(INFO).append(" 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(table.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private void appendLine(String text, boolean bold) throws IOException {
+        if (linesOnPage == LINES_PER_PAGE) {
+            endPage();
+        }
+        if (linesOnPage == 0) {
+            page.write(ascii("BT\n/F1 " + FONT_SIZE + " Tf\n" + LEADING + " TL\n"
+                    + MARGIN + " " + (PAGE_HEIGHT - MARGIN) + " Td\n"));
+            boldActive = false;
+        }
+        if (bold != boldActive) {
+            page.write(ascii(bold ? "/F2 " + HEADING_FONT_SIZE + " Tf\n" : "/F1 " + FONT_SIZE + " Tf\n"));
+            boldActive = bold;
+        }
+        page.write(literal(truncate(text)));
+        page.write(ascii(" Tj T*\n"));
+        linesOnPage++;
+    }
+
+    private void endPage() throws IOException {
+        int pageObject = FIRST_PAGE_OBJECT + 2 * pageCount;
+        int contentObject = pageObject + 1;
+        pageCount++;
+
+        if (linesOnPage > 0) {
+            page.write(ascii("ET\n"));
+        }
+        page.write(ascii("BT\n/F1 8 Tf\n" + MARGIN + " " + FOOTER_Y + " Td\n"));
+        page.write(literal("Strona " + pageCount));
+        page.write(ascii(" Tj\nET\n"));
+
+        writeObject(pageObject, "<< /Type /Page /Parent " + PAGES + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " "
+                + PAGE_HEIGHT + "] /Resources << /Font << /F1 " + FONT_REGULAR + " 0 R /F2 " + FONT_BOLD
+                + " 0 R >> >> /Contents " + contentObject + " 0 R >>");
+
+        startObject(contentObject);
+        write(ascii("<< /Length " + page.size() + " >>\nstream\n"));
+        write(page.toByteArray());
+        write(ascii("\nendstream\nendobj\n"));
+
+        page.reset();
+        linesOnPage = 0;
+    }
+
+    private void writeObject(int object, String body) throws IOException {
+        startObject(object);
+        write(ascii(body + "\nendobj\n"));
+    }
+
+    private void startObject(int object) throws IOException {
+        if (object >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(object + 1, offsets.length * 2));
+        }
+        offsets[object] = position;
+        write(ascii(object + " 0 obj\n"));
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private static String truncate(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.length() > MAX_LINE_LENGTH ? text.substring(0, MAX_LINE_LENGTH - 1) + "…" : text;
+    }
+
+    // Napis PDF w nawiasach; znaki spoza kodowania zastępujemy '?'.
+    static byte[] literal(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length() + 8);
+        bytes.write('(');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                bytes.write('\\');
+                bytes.write(c);
+            } else if (c >= 0x20 && c < 0x7F) {
+                bytes.write(c);
+            } else if (c == '\t') {
+                bytes.write(' ');
+            } else {
+                Byte code = ENCODED.get(c);
+                bytes.write(code != null ? code : '?');
+            }
+        }
+        bytes.write(')');
+        return bytes.toByteArray();
+    }
+
+    // Metadane dokumentu nie używają kodowania czcionki - zapisujemy je jako UTF-16BE z BOM.
+    private static String utf16Hex(String text) {
+        StringBuilder hex = new StringBuilder("<FEFF");
+        for (byte b : text.getBytes(StandardCharsets.UTF_16BE)) {
+            hex.append(String.format("%02X", b));
+        }
+        return hex.append('>').toString();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,63 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.model.BookRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookRatingSummaryRepository extends JpaRepository<BookRatingSummary, Long> {
+
+    @Modifying
+    @Query("UPDATE BookRatingSummary s SET " +
+            "s.reviewCount = s.reviewCount + :delta, " +
+            "s.ratingSum = s.ratingSum + :delta * :rating, " +
+            "s.rating1 = s.rating1 + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+            "s.rating2 = s.rating2 + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+            "s.rating3 = s.rating3 + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+            "s.rating4 = s.rating4 + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+            "s.rating5 = s.rating5 + CASE WHEN :rating = 5 THEN :delta ELSE 0 END, " +
+            "s.rating6 = s.rating6 + CASE WHEN :rating = 6 THEN :delta ELSE 0 END, " +
+            "s.rating7 = s.rating7 + CASE WHEN :rating = 7 THEN :delta ELSE 0 END, " +
+            "s.rating8 = s.rating8 + CASE WHEN :rating = 8 THEN :delta ELSE 0 END, " +
+            "s.rating9 = s.rating9 + CASE WHEN :rating = 9 THEN :delta ELSE 0 END, " +
+            "s.rating10 = s.rating10 + CASE WHEN :rating = 10 THEN :delta ELSE 0 END " +
+            "WHERE s.bookId = :bookId")
+    int applyRating(@Param("bookId") Long bookId, @Param("rating") long rating, @Param("delta") long delta);
+
+    @Modifying
+    @Query("DELETE FROM BookRatingSummary s WHERE s.bookId = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+
+    // MERGE (H2, PostgreSQL 15+) wstawia pusty wiersz w jednym poleceniu tylko wtedy, gdy go jeszcze nie ma.
+    @Modifying
+    @Query(value = "MERGE INTO book_rating_summary s " +
+            "USING (SELECT CAST(:bookId AS BIGINT) AS book_id) v ON s.book_id = v.book_id " +
+            "WHEN NOT MATCHED THEN INSERT (book_id, review_count, rating_sum, " +
+            "rating1, rating2, rating3, rating4, rating5, rating6, rating7, rating8, rating9, rating10) " +
+            "VALUES (v.book_id, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0)", nativeQuery = true)
+    int insertEmptyIfAbsent(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_rating_summary", nativeQuery = true)
+    int deleteAllSummaries();
+
+    @Modifying
+    @Query(value = "INSERT INTO book_rating_summary (book_id, review_count, rating_sum, " +
+            "rating1, rating2, rating3, rating4, rating5, rating6, rating7, rating8, rating9, rating10) " +
+            "SELECT b.id, COUNT(r.id), COALESCE(SUM(r.rating), 0), " +
+            "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 6 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 7 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 8 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 9 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 10 THEN 1 ELSE 0 END) " +
+            "FROM book b LEFT JOIN review r ON r.book_id = b.id GROUP BY b.id", nativeQuery = true)
+    int rebuildFromReviews();
+}
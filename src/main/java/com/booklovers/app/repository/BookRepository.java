@@ -1,10 +1,16 @@
 package com.booklovers.app.repository;
 
 import com.booklovers.app.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -12,4 +18,21 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Book findByTitle(String title);
 
     List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(String title, String author, String isbn);
-}
\ No newline at end of file
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    Optional<Book> findByIsbn13(String isbn13);
+
+    // Wstępny filtr długości pomija wartości, z których i tak nie da się zbudować ISBN-13,
+    // więc nie są odczytywane przy każdym starcie aplikacji.
+    @Query("SELECT b FROM Book b WHERE b.isbn13 IS NULL " +
+            "AND LENGTH(REPLACE(REPLACE(TRIM(b.isbn), '-', ''), ' ', '')) IN (10, 13)")
+    List<Book> findIsbn13BackfillCandidates();
+
+    @Query("SELECT b.isbn13 FROM Book b WHERE b.isbn13 IS NOT NULL")
+    Set<String> findAssignedIsbn13();
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+}
@@ -0,0 +1,182 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.dump.ColumnType;
+import com.booklovers.app.dump.DumpColumn;
+import com.booklovers.app.dump.DumpTable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.booklovers.app.dump.ColumnType.*;
+
+// Surowy dostęp JDBC do tabel objętych zrzutem całej bazy. Kolejność TABLES respektuje klucze obce.
+@Repository
+public class DatabaseDumpRepository {
+
+    public static final List<DumpTable> TABLES = List.of(
+            new DumpTable("book",
+                    column("id", LONG), column("title", STRING), column("author", STRING),
+                    column("isbn", STRING), column("isbn13", STRING)),
+            new DumpTable("app_user",
+                    column("id", LONG), column("username", STRING), column("password", STRING),
+                    column("role", STRING), column("reading_goal", INT), column("email", STRING),
+                    column("full_name", STRING), column("bio", STRING), column("avatar", STRING),
+                    column("locked", BOOLEAN)),
+            new DumpTable("shelf",
+                    column("id", LONG), column("name", STRING), column("shelf_code", STRING),
+                    column("user_id", LONG)),
+            new DumpTable("shelf_books",
+                    column("shelf_id", LONG), column("book_id", LONG)),
+            new DumpTable("review",
+                    column("id", LONG), column("rating", INT), column("content", STRING),
+                    column("created_at", TIMESTAMP), column("user_id", LONG), column("book_id", LONG)),
+            // Dziennik aktywności nie ma kluczy obcych (nazwy są zdenormalizowane), ale jest danymi źródłowymi.
+            new DumpTable("shelf_activity",
+                    column("id", LONG), column("type", STRING), column("user_id", LONG),
+                    column("username", STRING), column("book_id", LONG), column("book_title", STRING),
+                    column("book_author", STRING), column("shelf_code", STRING),
+                    column("previous_shelf_code", STRING), column("rating", INT),
+                    column("created_at", TIMESTAMP))
+    );
+
+    // Kolejność usuwania respektuje klucze obce. book_rating_summary jest jedyną tabelą pochodną -
+    // nie trafia do zrzutu, a po odtworzeniu przebudowuje ją BookRatingService.
+    private static final List<String> DELETE_ORDER = List.of(
+            "review", "shelf_books", "shelf", "shelf_activity", "book_rating_summary", "app_user", "book");
+
+    private static final Map<String, DumpTable> TABLES_BY_NAME = TABLES.stream()
+            .collect(Collectors.toMap(DumpTable::name, Function.identity()));
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public DatabaseDumpRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public interface RowHandler {
+        void handle(Object[] values) throws SQLException;
+    }
+
+    public void streamRows(DumpTable table, RowHandler handler) {
+        List<DumpColumn> columns = table.columns();
+        String sql = "SELECT " + String.join(", ", table.columnNames()) + " FROM " + table.name()
+                + " ORDER BY " + String.join(", ", table.columnNames().subList(0, primaryKeyLength(table)));
+        streamingJdbcTemplate.query(sql, rs -> {
+            Object[] values = new Object[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readValue(rs, i + 1, columns.get(i).type());
+            }
+            handler.handle(values);
+        });
+    }
+
+    public void insertAll(DumpTable table, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<DumpColumn> columns = table.columns();
+        String sql = "INSERT INTO " + table.name() + " (" + String.join(", ", table.columnNames())
+                + ") VALUES (" + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, values) -> {
+            for (int i = 0; i < values.length; i++) {
+                bindValue(ps, i + 1, columns.get(i).type(), values[i]);
+            }
+        });
+    }
+
+    public void deleteAll() {
+        for (String table : DELETE_ORDER) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    // Po wstawieniu wierszy z jawnymi ID licznik IDENTITY trzeba przesunąć za największe z nich.
+    // W H2 polecenie DDL zatwierdza bieżącą transakcję, dlatego wołamy to dopiero po commicie.
+    public void resetIdentities() {
+        for (DumpTable table : TABLES) {
+            if (!table.columnNames().contains("id")) {
+                continue;
+            }
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) + 1 FROM " + table.name(), Long.class);
+            jdbcTemplate.execute("ALTER TABLE " + table.name() + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    // Nazwy tabel i kolumn z pliku trafiają do SQL, więc przepuszczamy tylko te znane z TABLES.
+    public DumpTable resolve(DumpTable fromFile) {
+        DumpTable known = TABLES_BY_NAME.get(fromFile.name());
+        if (known == null) {
+            throw new IllegalArgumentException("Nieznana tabela w zrzucie: " + fromFile.name());
+        }
+        for (DumpColumn column : fromFile.columns()) {
+            if (!known.columns().contains(column)) {
+                throw new IllegalArgumentException("Nieznana kolumna w zrzucie: "
+                        + fromFile.name() + "." + column.name());
+            }
+        }
+        return fromFile;
+    }
+
+    private static int primaryKeyLength(DumpTable table) {
+        return table.columnNames().contains("id") ? 1 : table.columns().size();
+    }
+
+    private static Object readValue(ResultSet rs, int index, ColumnType type) throws SQLException {
+        Object value = switch (type) {
+            case LONG -> rs.getLong(index);
+            case INT -> rs.getInt(index);
+            case STRING -> rs.getString(index);
+            case BOOLEAN -> rs.getBoolean(index);
+            case TIMESTAMP -> {
+                Timestamp timestamp = rs.getTimestamp(index);
+                yield timestamp != null ? timestamp.toLocalDateTime() : null;
+            }
+        };
+        return rs.wasNull() ? null : value;
+    }
+
+    private static void bindValue(PreparedStatement ps, int index, ColumnType type, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType(type));
+            return;
+        }
+        switch (type) {
+            case LONG -> ps.setLong(index, (Long) value);
+            case INT -> ps.setInt(index, (Integer) value);
+            case STRING -> ps.setString(index, (String) value);
+            case BOOLEAN -> ps.setBoolean(index, (Boolean) value);
+            case TIMESTAMP -> ps.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value));
+        }
+    }
+
+    private static int sqlType(ColumnType type) {
+        return switch (type) {
+            case LONG -> Types.BIGINT;
+            case INT -> Types.INTEGER;
+            case STRING -> Types.VARCHAR;
+            case BOOLEAN -> Types.BOOLEAN;
+            case TIMESTAMP -> Types.TIMESTAMP;
+        };
+    }
+
+    private static DumpColumn column(String name, ColumnType type) {
+        return new DumpColumn(name, type);
+    }
+}
@@ -4,6 +4,9 @@ import com.booklovers.app.model.Book;
 import com.booklovers.app.model.Review;
 import com.booklovers.app.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -18,4 +21,8 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     int countByUser(User user);
 
     boolean existsByBookAndUser(Book book, User user);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.book.id = :bookId")
+    int deleteByBookId(@Param("bookId") Long bookId);
+}
@@ -0,0 +1,43 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.model.ShelfActivity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+// Wsadowy zapis historii półek; przy kluczach IDENTITY Hibernate wstawiałby każdy wpis osobno.
+@Repository
+public class ShelfActivityBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShelfActivityBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int insertAll(List<ShelfActivity> activities) {
+        if (activities.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shelf_activity (type, user_id, username, book_id, book_title, book_author, "
+                        + "shelf_code, previous_shelf_code, rating, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                activities, BATCH_SIZE, (ps, activity) -> {
+                    ps.setString(1, activity.getType().name());
+                    ps.setObject(2, activity.getUserId(), Types.BIGINT);
+                    ps.setString(3, activity.getUsername());
+                    ps.setObject(4, activity.getBookId(), Types.BIGINT);
+                    ps.setString(5, activity.getBookTitle());
+                    ps.setString(6, activity.getBookAuthor());
+                    ps.setString(7, activity.getShelfCode());
+                    ps.setString(8, activity.getPreviousShelfCode());
+                    ps.setObject(9, activity.getRating(), Types.INTEGER);
+                    ps.setTimestamp(10, Timestamp.valueOf(activity.getCreatedAt()));
+                });
+        return activities.size();
+    }
+}
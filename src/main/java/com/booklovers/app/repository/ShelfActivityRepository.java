@@ -0,0 +1,23 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.model.ShelfActivity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ShelfActivityRepository extends JpaRepository<ShelfActivity, Long> {
+
+    List<ShelfActivity> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<ShelfActivity> findByIdLessThanOrderByIdDesc(Long beforeId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ShelfActivity a WHERE a.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,143 @@
+package com.booklovers.app.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Bezpośredni dostęp do tabeli shelf_books dla operacji masowych, z pominięciem kolekcji Shelf.books.
+@Repository
+public class ShelfMembershipRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShelfMembershipRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean contains(Long shelfId, Long bookId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) > 0 FROM shelf_books WHERE shelf_id = ? AND book_id = ?",
+                Boolean.class, shelfId, bookId));
+    }
+
+    // Jedno polecenie zamiast sprawdzenia i wstawienia; unikalny klucz (shelf_id, book_id) chroni przed wyścigiem.
+    public boolean insert(Long shelfId, Long bookId) {
+        return jdbcTemplate.update("INSERT INTO shelf_books (shelf_id, book_id) SELECT ?, ? "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM shelf_books WHERE shelf_id = ? AND book_id = ?)",
+                shelfId, bookId, shelfId, bookId) > 0;
+    }
+
+    public boolean delete(Long shelfId, Long bookId) {
+        return jdbcTemplate.update("DELETE FROM shelf_books WHERE shelf_id = ? AND book_id = ?", shelfId, bookId) > 0;
+    }
+
+    // Kody półek użytkownika zawierających książkę, w kolejności tworzenia półek.
+    public List<String> findShelfCodesContaining(Long userId, Long bookId) {
+        return jdbcTemplate.queryForList("SELECT s.shelf_code FROM shelf_books sb JOIN shelf s ON s.id = sb.shelf_id "
+                + "WHERE sb.book_id = ? AND s.user_id = ? ORDER BY s.id", String.class, bookId, userId);
+    }
+
+    public int deleteFromUserShelves(Long userId, Long bookId) {
+        return jdbcTemplate.update("DELETE FROM shelf_books WHERE book_id = ? "
+                + "AND shelf_id IN (SELECT id FROM shelf WHERE user_id = ?)", bookId, userId);
+    }
+
+    // Usuwa książki z pozostałych półek o podanych kodach jednym poleceniem.
+    public int deleteFromOtherShelves(Long userId, Collection<Long> bookIds, Long keepShelfId,
+                                      Collection<String> shelfCodes) {
+        if (bookIds.isEmpty() || shelfCodes.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(bookIds);
+        args.add(userId);
+        args.add(keepShelfId);
+        args.addAll(shelfCodes);
+        return jdbcTemplate.update("DELETE FROM shelf_books WHERE book_id IN (" + placeholders(bookIds.size()) + ") "
+                + "AND shelf_id IN (SELECT id FROM shelf WHERE user_id = ? AND id <> ? "
+                + "AND shelf_code IN (" + placeholders(shelfCodes.size()) + "))", args.toArray());
+    }
+
+    public int deleteAll(Long shelfId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(shelfId);
+        args.addAll(bookIds);
+        return jdbcTemplate.update("DELETE FROM shelf_books WHERE shelf_id = ? AND book_id IN ("
+                + placeholders(bookIds.size()) + ")", args.toArray());
+    }
+
+    // Kody półek użytkownika dla wielu książek naraz, w kolejności tworzenia półek.
+    public Map<Long, List<String>> findShelfCodesByBook(Long userId, Collection<Long> bookIds) {
+        Map<Long, List<String>> codesByBook = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return codesByBook;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.addAll(bookIds);
+        jdbcTemplate.query("SELECT sb.book_id, s.shelf_code FROM shelf_books sb JOIN shelf s ON s.id = sb.shelf_id "
+                        + "WHERE s.user_id = ? AND sb.book_id IN (" + placeholders(bookIds.size()) + ") ORDER BY s.id",
+                rs -> {
+                    codesByBook.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2));
+                }, args.toArray());
+        return codesByBook;
+    }
+
+    public long findShelfVersion(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT shelf_version FROM app_user WHERE id = ?", Long.class, userId);
+    }
+
+    // Optymistyczna blokada: false oznacza, że inna transakcja zmieniła półki użytkownika od odczytu wersji.
+    public boolean claimShelfVersion(Long userId, long expectedVersion) {
+        return jdbcTemplate.update("UPDATE app_user SET shelf_version = shelf_version + 1 WHERE id = ? AND shelf_version = ?",
+                userId, expectedVersion) > 0;
+    }
+
+    public int deleteByBookId(Long bookId) {
+        return jdbcTemplate.update("DELETE FROM shelf_books WHERE book_id = ?", bookId);
+    }
+
+    public Set<Long> findBookIds(Long shelfId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        String placeholders = placeholders(bookIds.size());
+        Object[] args = new Object[bookIds.size() + 1];
+        args[0] = shelfId;
+        int i = 1;
+        for (Long bookId : bookIds) {
+            args[i++] = bookId;
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT book_id FROM shelf_books WHERE shelf_id = ? AND book_id IN (" + placeholders + ")",
+                Long.class, args));
+    }
+
+    public int insertAll(Long shelfId, Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO shelf_books (shelf_id, book_id) VALUES (?, ?)",
+                bookIds, BATCH_SIZE, (ps, bookId) -> {
+                    ps.setLong(1, shelfId);
+                    ps.setLong(2, bookId);
+                });
+        return bookIds.size();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
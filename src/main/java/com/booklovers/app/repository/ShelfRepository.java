@@ -1,12 +1,20 @@
 package com.booklovers.app.repository;
 
 import com.booklovers.app.model.Shelf;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import com.booklovers.app.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ShelfRepository extends JpaRepository<Shelf, Long> {
@@ -14,4 +22,65 @@ public interface ShelfRepository extends JpaRepository<Shelf, Long> {
     List<Shelf> findAllByUser(User user);
     Optional<Shelf> findByNameAndUser(String name, User user);
 
-}
\ No newline at end of file
+    @Query("SELECT b.id FROM Shelf s JOIN s.books b WHERE s.id = :shelfId AND b.id > :afterId ORDER BY b.id")
+    List<Long> findBookIdsAfter(@Param("shelfId") Long shelfId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(b) FROM Shelf s JOIN s.books b WHERE s.user.id = :userId")
+    long countBookEntriesByUserId(@Param("userId") Long userId);
+
+    // Półki bez książek zwracają jeden wiersz z bookId = null.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS shelfId, s.name AS shelfName, s.shelfCode AS shelfCode, b.id AS bookId " +
+            "FROM Shelf s LEFT JOIN s.books b WHERE s.user.id = :userId ORDER BY s.id, b.id")
+    Stream<ShelfBookRow> streamShelfBookRows(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT s.id AS shelfId, s.name AS shelfName, s.shelfCode AS shelfCode, b.id AS bookId, " +
+            "b.title AS title, b.author AS author, b.isbn AS isbn " +
+            "FROM Shelf s LEFT JOIN s.books b WHERE s.user.id = :userId ORDER BY s.id, b.title, b.id")
+    Stream<ShelfBookDetailsRow> streamShelfBookDetails(@Param("userId") Long userId);
+
+    // Użytkownicy bez półek zwracają jeden wiersz z shelfId = null.
+    @Query("SELECT u.id AS userId, u.username AS username, s.id AS shelfId, s.name AS shelfName, " +
+            "s.shelfCode AS shelfCode, COUNT(b) AS bookCount " +
+            "FROM User u LEFT JOIN u.shelves s LEFT JOIN s.books b " +
+            "WHERE u.id IN :userIds GROUP BY u.id, u.username, s.id, s.name, s.shelfCode ORDER BY u.id, s.id")
+    List<ExploreShelfRow> findExploreShelfRows(@Param("userIds") Collection<Long> userIds);
+
+    // Limit książek na półkę jest liczony w bazie, więc duża półka nie przenosi wszystkich tytułów do pamięci.
+    @Query(value = "SELECT ranked.shelf_id AS shelfId, ranked.title AS title, ranked.author AS author FROM (" +
+            "SELECT sb.shelf_id, b.title, b.author, " +
+            "ROW_NUMBER() OVER (PARTITION BY sb.shelf_id ORDER BY b.title, b.id) AS row_in_shelf " +
+            "FROM shelf s JOIN shelf_books sb ON sb.shelf_id = s.id JOIN book b ON b.id = sb.book_id " +
+            "WHERE s.user_id IN (:userIds)) ranked " +
+            "WHERE ranked.row_in_shelf <= :limit ORDER BY ranked.shelf_id, ranked.row_in_shelf", nativeQuery = true)
+    List<ExploreBookRow> findExploreTopBooks(@Param("userIds") Collection<Long> userIds, @Param("limit") int limit);
+
+    interface ExploreShelfRow {
+        Long getUserId();
+        String getUsername();
+        Long getShelfId();
+        String getShelfName();
+        String getShelfCode();
+        Long getBookCount();
+    }
+
+    interface ExploreBookRow {
+        Long getShelfId();
+        String getTitle();
+        String getAuthor();
+    }
+
+    interface ShelfBookRow {
+        Long getShelfId();
+        String getShelfName();
+        String getShelfCode();
+        Long getBookId();
+    }
+
+    interface ShelfBookDetailsRow extends ShelfBookRow {
+        String getTitle();
+        String getAuthor();
+        String getIsbn();
+    }
+}
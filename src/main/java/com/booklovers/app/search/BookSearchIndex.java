@@ -0,0 +1,133 @@
+package com.booklovers.app.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class BookSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int ISBN_WEIGHT = 4;
+    private static final int EXACT_MATCH_BONUS = 2;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record IndexedBook(String title, String author, String isbn, Map<String, Integer> terms) {
+    }
+
+    public void put(Long bookId, String title, String author, String isbn) {
+        Map<String, Integer> terms = new HashMap<>();
+        TextNormalizer.tokenize(title).forEach(term -> terms.merge(term, TITLE_WEIGHT, Math::max));
+        TextNormalizer.tokenize(author).forEach(term -> terms.merge(term, AUTHOR_WEIGHT, Math::max));
+        isbnTerms(isbn).forEach(term -> terms.merge(term, ISBN_WEIGHT, Math::max));
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(bookId);
+            books.put(bookId, new IndexedBook(title, author, isbn, terms));
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(bookId, weight));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateTitle(Long bookId, String title) {
+        IndexedBook existing;
+        lock.readLock().lock();
+        try {
+            existing = books.get(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (existing != null) {
+            put(bookId, title, existing.author(), existing.isbn());
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+        if (tokens.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String token : tokens) {
+                Map<Long, Integer> tokenScores = scoreToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((bookId, score) -> score + tokenScores.get(bookId));
+                }
+                if (scores.isEmpty()) return List.of();
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Integer>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> scoreToken(String token) {
+        Map<Long, Integer> tokenScores = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            int bonus = entry.getKey().equals(token) ? EXACT_MATCH_BONUS : 1;
+            entry.getValue().forEach((bookId, weight) -> tokenScores.merge(bookId, weight * bonus, Math::max));
+        }
+        return tokenScores;
+    }
+
+    private void removeUnlocked(Long bookId) {
+        IndexedBook existing = books.remove(bookId);
+        if (existing == null) return;
+        for (String term : existing.terms().keySet()) {
+            Map<Long, Integer> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) postings.remove(term);
+            }
+        }
+    }
+
+    private static List<String> isbnTerms(String isbn) {
+        List<String> terms = new ArrayList<>(TextNormalizer.tokenize(isbn));
+        if (isbn != null) {
+            String compact = isbn.replaceAll("[^0-9Xx]", "").toLowerCase();
+            if (!compact.isEmpty()) terms.add(compact);
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,229 @@
+package com.booklovers.app.search;
+
+import com.booklovers.app.dto.BookSuggestionDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class BookSuggestionIndex {
+
+    // Krótki prefiks ("a") obejmuje dużą część katalogu, więc jego ranking liczymy raz i trzymamy,
+    // dopóki nie zmieni się żadna książka pasująca do tego prefiksu.
+    private static final int SHORT_PREFIX_LENGTH = 2;
+    private static final int SHORT_PREFIX_TOP = 25;
+
+    private final NavigableMap<String, Set<Long>> keys = new TreeMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Long> reviewCounts = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> shortPrefixTop = new ConcurrentHashMap<>();
+    private final AtomicLong shortPrefixGeneration = new AtomicLong();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Entry(Long id, String title, String author, Set<String> keys) {
+    }
+
+    public void put(Long bookId, String title, String author) {
+        Set<String> bookKeys = new HashSet<>();
+        bookKeys.addAll(keysFor(title));
+        bookKeys.addAll(keysFor(author));
+
+        Entry previous;
+        lock.writeLock().lock();
+        try {
+            previous = removeUnlocked(bookId);
+            entries.put(bookId, new Entry(bookId, title, author, bookKeys));
+            bookKeys.forEach(key -> keys.computeIfAbsent(key, k -> new HashSet<>()).add(bookId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidateShortPrefixes(bookKeys);
+        if (previous != null) {
+            invalidateShortPrefixes(previous.keys());
+        }
+    }
+
+    public void updateTitle(Long bookId, String title) {
+        Entry existing;
+        lock.readLock().lock();
+        try {
+            existing = entries.get(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (existing != null) {
+            put(bookId, title, existing.author());
+        }
+    }
+
+    public void remove(Long bookId) {
+        Entry removed;
+        lock.writeLock().lock();
+        try {
+            removed = removeUnlocked(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        reviewCounts.remove(bookId);
+        if (removed != null) {
+            invalidateShortPrefixes(removed.keys());
+        }
+    }
+
+    public void setReviewCount(Long bookId, long count) {
+        reviewCounts.put(bookId, count);
+        invalidateShortPrefixes(bookId);
+    }
+
+    public void adjustReviewCount(Long bookId, long delta) {
+        reviewCounts.merge(bookId, delta, (current, d) -> Math.max(0, current + d));
+        invalidateShortPrefixes(bookId);
+    }
+
+    public void clearReviewCounts() {
+        reviewCounts.clear();
+        shortPrefixGeneration.incrementAndGet();
+        shortPrefixTop.clear();
+    }
+
+    public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return List.of();
+
+        List<Long> ranked;
+        if (key.length() <= SHORT_PREFIX_LENGTH && limit <= SHORT_PREFIX_TOP) {
+            ranked = shortPrefixTop(key);
+            ranked = ranked.subList(0, Math.min(limit, ranked.size()));
+        } else {
+            ranked = rankPrefix(key, limit);
+        }
+
+        List<BookSuggestionDTO> result = new ArrayList<>(ranked.size());
+        lock.readLock().lock();
+        try {
+            for (Long id : ranked) {
+                Entry e = entries.get(id);
+                if (e != null) {
+                    result.add(new BookSuggestionDTO(e.id(), e.title(), e.author(), reviewCount(e.id())));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private List<Long> shortPrefixTop(String key) {
+        List<Long> cached = shortPrefixTop.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Ranking policzony równolegle ze zmianą książki mógłby być nieaktualny - wtedy go nie zapisujemy.
+        // Generację sprawdzamy w compute(), czyli pod blokadą wpisu mapy: unieważnienie najpierw podbija
+        // generację, a potem usuwa wpis, więc zapis ze starą generacją zawsze zostanie po nim usunięty.
+        long generation = shortPrefixGeneration.get();
+        List<Long> ranked = rankPrefix(key, SHORT_PREFIX_TOP);
+        shortPrefixTop.compute(key, (k, existing) ->
+                shortPrefixGeneration.get() == generation ? ranked : existing);
+        return ranked;
+    }
+
+    // Ranking obejmuje cały zakres prefiksu - kopiec o rozmiarze limit ogranicza pamięć, nie liczbę kandydatów.
+    private List<Long> rankPrefix(String key, int limit) {
+        Comparator<Entry> ranking = Comparator.<Entry>comparingLong(e -> reviewCount(e.id()))
+                .thenComparing(Entry::title, Comparator.reverseOrder());
+        PriorityQueue<Entry> top = new PriorityQueue<>(limit + 1, ranking);
+
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            for (Set<Long> ids : keys.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                for (Long id : ids) {
+                    if (!seen.add(id)) continue;
+                    top.offer(entries.get(id));
+                    if (top.size() > limit) top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Entry> ranked = new ArrayList<>(top);
+        ranked.sort(ranking.reversed());
+        return ranked.stream().map(Entry::id).toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long reviewCount(Long bookId) {
+        return reviewCounts.getOrDefault(bookId, 0L);
+    }
+
+    private void invalidateShortPrefixes(Long bookId) {
+        Entry entry;
+        lock.readLock().lock();
+        try {
+            entry = entries.get(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (entry != null) {
+            invalidateShortPrefixes(entry.keys());
+        }
+    }
+
+    private void invalidateShortPrefixes(Set<String> bookKeys) {
+        shortPrefixGeneration.incrementAndGet();
+        for (String key : bookKeys) {
+            for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, key.length()); length++) {
+                shortPrefixTop.remove(key.substring(0, length));
+            }
+        }
+    }
+
+    private Entry removeUnlocked(Long bookId) {
+        Entry existing = entries.remove(bookId);
+        if (existing == null) return null;
+        for (String key : existing.keys()) {
+            Set<Long> ids = keys.get(key);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) keys.remove(key);
+            }
+        }
+        return existing;
+    }
+
+    // Klucze zaczynają się od każdego słowa, więc "pok" podpowie "Wojna i pokój".
+    private static Set<String> keysFor(String text) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            result.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return result;
+    }
+
+    private static String normalize(String prefix) {
+        return String.join(" ", TextNormalizer.tokenize(prefix));
+    }
+}
@@ -0,0 +1,41 @@
+package com.booklovers.app.search;
+
+import java.util.regex.Pattern;
+
+public final class IsbnNormalizer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s-]+");
+    private static final Pattern ISBN_10 = Pattern.compile("\\d{9}[\\dX]");
+    private static final Pattern ISBN_13 = Pattern.compile("97[89]\\d{10}");
+
+    private IsbnNormalizer() {
+    }
+
+    // Zwraca 13 cyfr bez myślników albo null, gdy wartość nie jest numerem ISBN-10/13.
+    // Cyfra kontrolna ISBN-13 nie jest weryfikowana - dane w katalogu nie zawsze ją mają poprawną.
+    public static String toIsbn13(String isbn) {
+        if (isbn == null) return null;
+        String compact = SEPARATORS.matcher(isbn.trim()).replaceAll("").toUpperCase();
+        if (ISBN_13.matcher(compact).matches()) {
+            return compact;
+        }
+        if (ISBN_10.matcher(compact).matches()) {
+            String body = "978" + compact.substring(0, 9);
+            return body + checkDigit13(body);
+        }
+        return null;
+    }
+
+    public static boolean looksLikeIsbn(String query) {
+        return toIsbn13(query) != null;
+    }
+
+    private static int checkDigit13(String first12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int digit = first12.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
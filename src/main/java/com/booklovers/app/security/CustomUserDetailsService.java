@@ -1,18 +1,40 @@
 package com.booklovers.app.security;
 
+import com.booklovers.app.dto.CacheStatsDTO;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+
 @Service
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, MeterBinder {
+
+    private static final Duration PRINCIPAL_TTL = Duration.ofMinutes(5);
+    private static final int MAX_CACHED_PRINCIPALS = 10_000;
 
     private final UserRepository userRepository;
+    private final Cache<String, CachedPrincipal> principals = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_PRINCIPALS)
+            .expireAfterWrite(PRINCIPAL_TTL)
+            .recordStats()
+            .build();
+
+    // Spring Security czyści hasło w zwróconym UserDetails po uwierzytelnieniu,
+    // dlatego w cache trzymamy niezmienny zrzut i za każdym razem budujemy nowy obiekt.
+    private record CachedPrincipal(String username, String password, String role, boolean locked) {
+    }
 
     public CustomUserDetailsService(UserRepository userRepository) {
         this.userRepository = userRepository;
@@ -20,6 +42,38 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedPrincipal principal = principals.get(username, this::loadPrincipal);
+
+        return org.springframework.security.core.userdetails.User.builder()
+                .username(principal.username())
+                .password(principal.password())
+                .authorities(principal.role())
+                .accountLocked(principal.locked())
+                .build();
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            principals.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        principals.invalidateAll();
+    }
+
+    public CacheStatsDTO getCacheStats() {
+        CacheStats stats = principals.stats();
+        return new CacheStatsDTO("userDetails", principals.estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, principals, "userDetails");
+    }
+
+    private CachedPrincipal loadPrincipal(String username) {
         log.debug("Próba autoryzacji użytkownika: {}", username);
 
         User user = userRepository.findByUsername(username)
@@ -28,7 +82,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                     return new UsernameNotFoundException("Nie znaleziono użytkownika");
                 });
 
-        log.info("Pomyślnie załadowano dane użytkownika: {} (Rola: {}, Zablokowany: {})",
+        log.debug("Pomyślnie załadowano dane użytkownika: {} (Rola: {}, Zablokowany: {})",
                 username, user.getRole(), user.isLocked());
 
         String role = user.getRole();
@@ -36,11 +90,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             role = "ROLE_" + role;
         }
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(role != null ? role : "ROLE_USER")
-                .accountLocked(user.isLocked())
-                .build();
+        return new CachedPrincipal(user.getUsername(), user.getPassword(),
+                role != null ? role : "ROLE_USER", user.isLocked());
     }
 }
@@ -0,0 +1,33 @@
+package com.booklovers.app.security;
+
+import com.booklovers.app.jfr.LoginEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+// Logowanie formularzem trafia do JFR jako zdarzenie chwilowe - Spring Security publikuje je już po uwierzytelnieniu.
+// Nieudane próby obejmują też HTTP Basic; wydanie tokenu API zapisuje AuthService razem z czasem trwania.
+@Component
+public class LoginEventListener {
+
+    @EventListener
+    public void onSuccess(InteractiveAuthenticationSuccessEvent success) {
+        record(success.getAuthentication().getName(), true);
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent failure) {
+        record(failure.getAuthentication().getName(), false);
+    }
+
+    private static void record(String username, boolean success) {
+        LoginEvent event = new LoginEvent();
+        if (event.shouldCommit()) {
+            event.username = username;
+            event.method = "password";
+            event.success = success;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.booklovers.app.security;
+
+import com.booklovers.app.dto.TokenResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Token: base64url(typ|login|role|wygaśnięcie) + "." + base64url(HMAC-SHA256).
+// Weryfikacja nie wymaga bazy danych, więc każdy węzeł API z tym samym kluczem przyjmie token.
+@Service
+@Slf4j
+public class TokenService {
+
+    public static final String ACCESS = "a";
+    public static final String REFRESH = "r";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec signingKey;
+    private final Duration accessTtl;
+    private final Duration refreshTtl;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(@Value("${app.security.token.secret:}") String secret,
+                        @Value("${app.security.token.access-ttl:15m}") Duration accessTtl,
+                        @Value("${app.security.token.refresh-ttl:7d}") Duration refreshTtl) {
+        this(secret, accessTtl, refreshTtl, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration accessTtl, Duration refreshTtl, Clock clock) {
+        this.signingKey = new SecretKeySpec(resolveSecret(secret), HMAC_ALGORITHM);
+        this.accessTtl = accessTtl;
+        this.refreshTtl = refreshTtl;
+        this.clock = clock;
+    }
+
+    public TokenResponse issue(UserDetails user) {
+        String roles = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        return new TokenResponse(
+                sign(ACCESS, user.getUsername(), roles, accessTtl),
+                sign(REFRESH, user.getUsername(), roles, refreshTtl),
+                "Bearer",
+                accessTtl.toSeconds());
+    }
+
+    // Zwraca null dla tokenu niepoprawnego, podrobionego, wygasłego lub innego typu.
+    public UserDetails verify(String token, String expectedType) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        byte[] signature;
+        String[] fields;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+            fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, hmac(payload)) || fields.length != 4
+                || !fields[0].equals(expectedType)) {
+            return null;
+        }
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(fields[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (clock.instant().getEpochSecond() >= expiresAt) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(fields[2].split(","))
+                .filter(role -> !role.isEmpty())
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new User(fields[1], "", authorities);
+    }
+
+    private String sign(String type, String username, String roles, Duration ttl) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String payload = ENCODER.encodeToString(
+                String.join("|", type, username, roles, String.valueOf(expiresAt)).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(hmac(payload));
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Nie można podpisać tokenu", e);
+        }
+    }
+
+    private static byte[] resolveSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("Brak app.security.token.secret - używam losowego klucza, tokeny nie przetrwają restartu");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] key = Base64.getDecoder().decode(secret.trim());
+        if (key.length < 32) {
+            throw new IllegalStateException("Klucz app.security.token.secret musi mieć co najmniej 256 bitów");
+        }
+        return key;
+    }
+}
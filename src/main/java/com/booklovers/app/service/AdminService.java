@@ -1,8 +1,12 @@
 package com.booklovers.app.service;
 
+import com.booklovers.app.dto.CacheStatsDTO;
+import com.booklovers.app.model.Review;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.ReviewRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CachingPasswordEncoder;
+import com.booklovers.app.security.CustomUserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,10 +17,20 @@ public class AdminService {
 
     private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
-
-    public AdminService(UserRepository userRepository, ReviewRepository reviewRepository) {
+    private final BookRatingService bookRatingService;
+    private final ShelfActivityService shelfActivityService;
+    private final CustomUserDetailsService userDetailsService;
+    private final CachingPasswordEncoder passwordEncoder;
+
+    public AdminService(UserRepository userRepository, ReviewRepository reviewRepository,
+                        BookRatingService bookRatingService, ShelfActivityService shelfActivityService,
+                        CustomUserDetailsService userDetailsService, CachingPasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
         this.reviewRepository = reviewRepository;
+        this.bookRatingService = bookRatingService;
+        this.shelfActivityService = shelfActivityService;
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @Transactional(readOnly = true)
@@ -36,6 +50,7 @@ public class AdminService {
         boolean newStatus = !user.isLocked();
         user.setLocked(newStatus);
         userRepository.save(user);
+        evictPrincipal(user.getUsername());
 
         return newStatus ? "zablokowany" : "odblokowany";
     }
@@ -49,7 +64,9 @@ public class AdminService {
             throw new IllegalStateException("Nie można usunąć Administratora.");
         }
 
+        shelfActivityService.forgetUser(user.getId());
         userRepository.delete(user);
+        evictPrincipal(user.getUsername());
     }
 
     @Transactional
@@ -59,13 +76,29 @@ public class AdminService {
 
         user.setRole("ADMIN");
         userRepository.save(user);
+        evictPrincipal(user.getUsername());
     }
 
     @Transactional
     public void deleteReview(Long reviewId) {
-        if (!reviewRepository.existsById(reviewId)) {
-            throw new RuntimeException("Recenzja nie istnieje");
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new RuntimeException("Recenzja nie istnieje"));
+        reviewRepository.delete(review);
+        if (review.getBook() != null) {
+            bookRatingService.removeRating(review.getBook().getId(), review.getRating());
         }
-        reviewRepository.deleteById(reviewId);
     }
-}
\ No newline at end of file
+
+    @Transactional
+    public int rebuildRatingSummaries() {
+        return bookRatingService.rebuild();
+    }
+
+    public List<CacheStatsDTO> getAuthCacheStats() {
+        return List.of(userDetailsService.getCacheStats(), passwordEncoder.getCacheStats());
+    }
+
+    private void evictPrincipal(String username) {
+        TransactionHooks.afterCommit(() -> userDetailsService.evict(username));
+    }
+}
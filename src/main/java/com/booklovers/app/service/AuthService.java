@@ -1,8 +1,17 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.RegisterRequest;
+import com.booklovers.app.dto.TokenRequest;
+import com.booklovers.app.dto.TokenResponse;
+import com.booklovers.app.jfr.LoginEvent;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
+import com.booklovers.app.security.TokenService;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,13 +24,19 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ShelfService shelfService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TokenService tokenService;
 
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       ShelfService shelfService) {
+                       ShelfService shelfService,
+                       CustomUserDetailsService userDetailsService,
+                       TokenService tokenService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.shelfService = shelfService;
+        this.userDetailsService = userDetailsService;
+        this.tokenService = tokenService;
     }
 
     @Transactional
@@ -48,4 +63,45 @@ public class AuthService {
 
         log.info("Zarejestrowano nowego użytkownika: {}", user.getUsername());
     }
-}
\ No newline at end of file
+
+    public TokenResponse issueToken(TokenRequest request) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        event.username = request.getUsername();
+        event.method = "token";
+        try {
+            UserDetails user = loadActiveUser(request.getUsername());
+            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+                throw new BadCredentialsException("Nieprawidłowy login lub hasło");
+            }
+            log.debug("Wydano token dostępu dla użytkownika: {}", user.getUsername());
+            TokenResponse token = tokenService.issue(user);
+            event.success = true;
+            return token;
+        } finally {
+            event.commit();
+        }
+    }
+
+    // Odświeżenie ponownie wczytuje użytkownika, więc blokada i zmiana roli działają najpóźniej po wygaśnięciu tokenu dostępu.
+    public TokenResponse refreshToken(String refreshToken) {
+        UserDetails claims = tokenService.verify(refreshToken, TokenService.REFRESH);
+        if (claims == null) {
+            throw new BadCredentialsException("Token odświeżania jest nieprawidłowy lub wygasł");
+        }
+        return tokenService.issue(loadActiveUser(claims.getUsername()));
+    }
+
+    private UserDetails loadActiveUser(String username) {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Nieprawidłowy login lub hasło");
+        }
+        if (!user.isAccountNonLocked()) {
+            throw new LockedException("Konto jest zablokowane");
+        }
+        return user;
+    }
+}
@@ -0,0 +1,277 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.BackupJobDTO;
+import com.booklovers.app.dto.ImportResultDTO;
+import com.booklovers.app.model.BackupJobStatus;
+import com.booklovers.app.model.BackupJobType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Eksporty i importy kopii wykonywane w tle na wątkach wirtualnych. Semafor ogranicza liczbę
+// zadań wykonywanych jednocześnie (każde zajmuje połączenie z bazą), a limit na użytkownika
+// nie pozwala jednemu kontu zapełnić kolejki. Stan zadań trzymamy w pamięci węzła.
+@Service
+@Slf4j
+public class BackupJobService {
+
+    private final BackupService backupService;
+    private final Path directory;
+    private final int maxPerUser;
+    private final Duration retention;
+    private final Semaphore slots;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("backup-job-", 0).factory());
+    private final Map<String, BackupJob> jobs = new ConcurrentHashMap<>();
+
+    public BackupJobService(BackupService backupService,
+                            @Value("${app.backup.jobs.directory:uploads}") String directory,
+                            @Value("${app.backup.jobs.max-concurrent:4}") int maxConcurrent,
+                            @Value("${app.backup.jobs.max-per-user:2}") int maxPerUser,
+                            @Value("${app.backup.jobs.retention:1h}") Duration retention) {
+        this.backupService = backupService;
+        this.directory = Path.of(directory);
+        this.maxPerUser = maxPerUser;
+        this.retention = retention;
+        this.slots = new Semaphore(maxConcurrent, true);
+    }
+
+    private interface JobTask {
+        void run(BackupJob job) throws Exception;
+    }
+
+    private static final class BackupJob {
+        private final String id = UUID.randomUUID().toString();
+        private final Long userId;
+        private final BackupJobType type;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong processed = new AtomicLong();
+        private volatile long total;
+        private volatile BackupJobStatus status = BackupJobStatus.QUEUED;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        private volatile ImportResultDTO importResult;
+        private volatile Path resultFile;
+
+        private BackupJob(Long userId, BackupJobType type) {
+            this.userId = userId;
+            this.type = type;
+        }
+
+        private boolean isActive() {
+            return status == BackupJobStatus.QUEUED || status == BackupJobStatus.RUNNING;
+        }
+    }
+
+    public BackupJobDTO submitExport(Long userId, String format, boolean gzip) {
+        BackupJobType type = "csv".equalsIgnoreCase(format) ? BackupJobType.EXPORT_CSV
+                : "pdf".equalsIgnoreCase(format) ? BackupJobType.EXPORT_PDF : BackupJobType.EXPORT_JSON;
+        BackupJob job = register(userId, type);
+        String extension = switch (type) {
+            case EXPORT_CSV -> gzip ? ".csv.gz" : ".csv";
+            case EXPORT_PDF -> ".pdf";
+            default -> ".json";
+        };
+
+        start(job, running -> {
+            running.total = backupService.countExportEntries(userId);
+            Path part = directory.resolve(running.id + ".part");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                switch (type) {
+                    case EXPORT_CSV -> backupService.writeUserDataAsCsv(userId, out, gzip, running.processed::addAndGet);
+                    case EXPORT_PDF -> backupService.writeUserDataAsPdf(userId, out, running.processed::addAndGet);
+                    default -> backupService.writeUserData(userId, out, running.processed::addAndGet);
+                }
+            } catch (Exception e) {
+                Files.deleteIfExists(part);
+                throw e;
+            }
+            running.resultFile = Files.move(part, directory.resolve(running.id + extension),
+                    StandardCopyOption.REPLACE_EXISTING);
+        });
+        return toDTO(job);
+    }
+
+    // Przesłany plik zapisujemy na dysk, żeby zwolnić wątek żądania; import czyta go już w tle.
+    public BackupJobDTO submitImport(Long userId, InputStream upload) throws IOException {
+        BackupJob job = register(userId, BackupJobType.IMPORT_JSON);
+        Path uploadFile = directory.resolve(job.id + ".upload");
+        try {
+            Files.copy(upload, uploadFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(uploadFile);
+            finish(job, BackupJobStatus.FAILED, "Nie udało się zapisać przesłanego pliku");
+            throw e;
+        }
+
+        start(job, running -> {
+            running.total = Files.size(uploadFile);
+            try (InputStream in = new CountingInputStream(Files.newInputStream(uploadFile), running.processed)) {
+                running.importResult = backupService.importUserData(userId, in);
+            } finally {
+                Files.deleteIfExists(uploadFile);
+            }
+        });
+        return toDTO(job);
+    }
+
+    public Optional<BackupJobDTO> getJob(Long userId, String jobId) {
+        purgeExpired();
+        return findOwnJob(userId, jobId).map(this::toDTO);
+    }
+
+    public List<BackupJobDTO> getJobs(Long userId) {
+        purgeExpired();
+        return jobs.values().stream()
+                .filter(job -> job.userId.equals(userId))
+                .sorted(Comparator.comparing((BackupJob job) -> job.createdAt).reversed())
+                .map(this::toDTO)
+                .toList();
+    }
+
+    public Optional<Path> getResultFile(Long userId, String jobId) {
+        return findOwnJob(userId, jobId)
+                .filter(job -> job.status == BackupJobStatus.COMPLETED && job.resultFile != null)
+                .map(job -> job.resultFile)
+                .filter(Files::exists);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BackupJob register(Long userId, BackupJobType type) {
+        purgeExpired();
+        BackupJob job = new BackupJob(userId, type);
+        synchronized (jobs) {
+            long active = jobs.values().stream()
+                    .filter(other -> other.userId.equals(userId) && other.isActive())
+                    .count();
+            if (active >= maxPerUser) {
+                throw new IllegalStateException("Osiągnięto limit " + maxPerUser
+                        + " jednoczesnych zadań kopii zapasowej. Poczekaj na zakończenie poprzednich.");
+            }
+            jobs.put(job.id, job);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            jobs.remove(job.id);
+            throw new IllegalStateException("Nie można utworzyć katalogu " + directory, e);
+        }
+        return job;
+    }
+
+    private void start(BackupJob job, JobTask task) {
+        executor.submit(() -> {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(job, BackupJobStatus.FAILED, "Zadanie przerwane");
+                return;
+            }
+            try {
+                job.status = BackupJobStatus.RUNNING;
+                task.run(job);
+                finish(job, BackupJobStatus.COMPLETED, null);
+                log.info("Zakończono zadanie {} ({}) użytkownika {}", job.id, job.type, job.userId);
+            } catch (Exception e) {
+                log.error("Zadanie {} ({}) użytkownika {} nie powiodło się", job.id, job.type, job.userId, e);
+                finish(job, BackupJobStatus.FAILED, e.getMessage());
+            } finally {
+                slots.release();
+            }
+        });
+    }
+
+    private void finish(BackupJob job, BackupJobStatus status, String error) {
+        job.error = error;
+        job.finishedAt = LocalDateTime.now();
+        job.status = status;
+    }
+
+    private Optional<BackupJob> findOwnJob(Long userId, String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).filter(job -> job.userId.equals(userId));
+    }
+
+    private void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.isActive() || job.finishedAt == null || job.finishedAt.isAfter(cutoff)) {
+                return false;
+            }
+            if (job.resultFile != null) {
+                try {
+                    Files.deleteIfExists(job.resultFile);
+                } catch (IOException e) {
+                    log.warn("Nie udało się usunąć pliku {}", job.resultFile, e);
+                }
+            }
+            return true;
+        });
+    }
+
+    private BackupJobDTO toDTO(BackupJob job) {
+        long processed = job.processed.get();
+        long total = job.total;
+        Integer percent = null;
+        if (job.status == BackupJobStatus.COMPLETED) {
+            percent = 100;
+        } else if (total > 0) {
+            percent = (int) Math.min(99, processed * 100 / total);
+        }
+        return new BackupJobDTO(job.id, job.type, job.status, processed, total, percent,
+                job.createdAt, job.finishedAt, job.error, job.importResult);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        private CountingInputStream(InputStream in, AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int read = super.read(buffer, off, len);
+            if (read > 0) {
+                counter.addAndGet(read);
+            }
+            return read;
+        }
+    }
+}
@@ -1,152 +1,431 @@
 package com.booklovers.app.service;
 
-import com.booklovers.app.dto.BackupDTO;
-import com.booklovers.app.model.Book;
+import com.booklovers.app.dto.ImportResultDTO;
+import com.booklovers.app.jfr.BackupEvent;
 import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
+import com.booklovers.app.pdf.PdfTextWriter;
 import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.ShelfRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
+@Slf4j
 public class BackupService {
 
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final DateTimeFormatter PDF_TIMESTAMP = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
     private final UserRepository userRepository;
     private final ShelfRepository shelfRepository;
     private final BookRepository bookRepository;
     private final ObjectMapper objectMapper;
+    private final ExploreFeedService exploreFeedService;
+    private final ShelfMembershipRepository shelfMembershipRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    public BackupService(UserRepository userRepository, ShelfRepository shelfRepository, BookRepository bookRepository, ObjectMapper objectMapper) {
+    public BackupService(UserRepository userRepository, ShelfRepository shelfRepository, BookRepository bookRepository,
+                         ObjectMapper objectMapper, ExploreFeedService exploreFeedService,
+                         ShelfMembershipRepository shelfMembershipRepository, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.shelfRepository = shelfRepository;
         this.bookRepository = bookRepository;
         this.objectMapper = objectMapper;
+        this.exploreFeedService = exploreFeedService;
+        this.shelfMembershipRepository = shelfMembershipRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    // Wiersze CSV (jeden na półkę) są budowane z jednego strumienia projekcji posortowanego po półce
+    // i zapisywane od razu do wyjścia, więc w pamięci nie trzymamy ani encji, ani całego pliku.
+    // Wywołanie wewnętrzne omija proxy, więc transakcję dla strumienia otwiera już ta metoda.
     @Transactional(readOnly = true)
-    public String exportUserDataToCSV(Long userId) {
+    public void writeUserDataAsCsv(Long userId, OutputStream out, boolean gzip) throws IOException {
+        writeUserDataAsCsv(userId, out, gzip, written -> { });
+    }
+
+    // progress otrzymuje liczbę książek zapisanych od poprzedniego wywołania.
+    @Transactional(readOnly = true)
+    public void writeUserDataAsCsv(Long userId, OutputStream out, boolean gzip, LongConsumer progress)
+            throws IOException {
+        BackupEvent event = BackupEvent.begin("export", gzip ? "csv.gz" : "csv", userId);
+        try {
+            writeCsv(userId, out, gzip, event.counting(progress));
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void writeCsv(Long userId, OutputStream out, boolean gzip, LongConsumer progress) throws IOException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return generateCsvContent(user);
+
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, CSV_BUFFER_SIZE) : null;
+        Writer csv = new BufferedWriter(new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8),
+                CSV_BUFFER_SIZE);
+        csv.write("Username,Email,FullName,Bio,Avatar,ShelfName,ShelfCode,BookIds\n");
+
+        String userColumns = String.join(",",
+                escapeCsv(user.getUsername()),
+                escapeCsv(user.getEmail()),
+                escapeCsv(user.getFullName()),
+                escapeCsv(user.getBio()),
+                escapeCsv(user.getAvatar()));
+
+        try (Stream<ShelfRepository.ShelfBookRow> rows = shelfRepository.streamShelfBookRows(user.getId())) {
+            Iterator<ShelfRepository.ShelfBookRow> iterator = rows.iterator();
+            Long currentShelfId = null;
+            boolean firstBook = true;
+            while (iterator.hasNext()) {
+                ShelfRepository.ShelfBookRow row = iterator.next();
+                if (!row.getShelfId().equals(currentShelfId)) {
+                    if (currentShelfId != null) {
+                        csv.write('\n');
+                    }
+                    currentShelfId = row.getShelfId();
+                    firstBook = true;
+                    csv.write(userColumns);
+                    csv.write(',');
+                    csv.write(escapeCsv(row.getShelfName()));
+                    csv.write(',');
+                    csv.write(escapeCsv(row.getShelfCode()));
+                    csv.write(',');
+                }
+                if (row.getBookId() != null) {
+                    if (!firstBook) {
+                        csv.write(';');
+                    }
+                    csv.write(Long.toString(row.getBookId()));
+                    firstBook = false;
+                    progress.accept(1);
+                }
+            }
+            if (currentShelfId != null) {
+                csv.write('\n');
+            }
+        }
+
+        csv.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void writeUserDataAsPdf(Long userId, OutputStream out) throws IOException {
+        writeUserDataAsPdf(userId, out, written -> { });
     }
 
+    // Zestawienie półek i książek; strony są zapisywane do wyjścia na bieżąco z jednego strumienia projekcji.
     @Transactional(readOnly = true)
-    public byte[] exportUserDataToPDF(Long userId) {
+    public void writeUserDataAsPdf(Long userId, OutputStream out, LongConsumer progress) throws IOException {
+        BackupEvent event = BackupEvent.begin("export", "pdf", userId);
+        try {
+            writePdf(userId, out, event.counting(progress));
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void writePdf(Long userId, OutputStream out, LongConsumer progress) throws IOException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return generatePdfContent(user);
+        long start = System.nanoTime();
+
+        PdfTextWriter pdf = new PdfTextWriter(out, "Biblioteka użytkownika " + user.getUsername());
+        pdf.heading("Biblioteka użytkownika " + user.getUsername());
+        if (user.getFullName() != null) {
+            pdf.line(user.getFullName());
+        }
+        pdf.line("Wygenerowano: " + LocalDateTime.now().format(PDF_TIMESTAMP));
+
+        long books = 0;
+        try (Stream<ShelfRepository.ShelfBookDetailsRow> rows = shelfRepository.streamShelfBookDetails(user.getId())) {
+            Iterator<ShelfRepository.ShelfBookDetailsRow> iterator = rows.iterator();
+            Long currentShelfId = null;
+            while (iterator.hasNext()) {
+                ShelfRepository.ShelfBookDetailsRow row = iterator.next();
+                if (!row.getShelfId().equals(currentShelfId)) {
+                    currentShelfId = row.getShelfId();
+                    pdf.blankLine();
+                    pdf.heading(row.getShelfName() + " (" + row.getShelfCode() + ")");
+                }
+                if (row.getBookId() == null) {
+                    pdf.line("Brak książek na tej półce.");
+                    continue;
+                }
+                StringBuilder line = new StringBuilder("• ").append(row.getTitle());
+                if (row.getAuthor() != null) {
+                    line.append(" — ").append(row.getAuthor());
+                }
+                if (row.getIsbn() != null) {
+                    line.append(" (ISBN ").append(row.getIsbn()).append(')');
+                }
+                pdf.line(line.toString());
+                books++;
+                progress.accept(1);
+            }
+        }
+        pdf.finish();
+
+        log.info("Wygenerowano PDF użytkownika {}: {} książek, {} stron, {} B w {} ms", user.getUsername(),
+                books, pdf.getPageCount(), pdf.getBytesWritten(), (System.nanoTime() - start) / 1_000_000);
     }
 
-    @Transactional(readOnly = true)
-    public String exportUserData(Long userId) throws Exception {
+    public void writeUserData(Long userId, OutputStream out) throws IOException {
+        writeUserData(userId, out, written -> { });
+    }
+
+    // Zapisuje kopię JSON prosto do strumienia; identyfikatory książek są pobierane partiami krótkimi
+    // zapytaniami zamiast w jednej długiej transakcji, więc zużycie pamięci nie zależy od wielkości biblioteki.
+    public void writeUserData(Long userId, OutputStream out, LongConsumer progress) throws IOException {
+        BackupEvent event = BackupEvent.begin("export", "json", userId);
+        try {
+            writeJson(userId, out, event.counting(progress));
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void writeJson(Long userId, OutputStream out, LongConsumer progress) throws IOException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return generateJsonContent(user);
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("username", user.getUsername());
+            json.writeStringField("email", user.getEmail());
+            json.writeStringField("fullName", user.getFullName());
+            json.writeStringField("bio", user.getBio());
+            json.writeStringField("avatar", user.getAvatar());
+
+            json.writeArrayFieldStart("shelves");
+            for (Shelf shelf : shelfRepository.findAllByUser(user)) {
+                json.writeStartObject();
+                json.writeStringField("name", shelf.getName());
+                json.writeStringField("code", shelf.getShelfCode());
+                json.writeArrayFieldStart("bookIds");
+                writeBookIds(json, shelf.getId(), progress);
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long countExportEntries(Long userId) {
+        return shelfRepository.countBookEntriesByUserId(userId);
+    }
+
+    private void writeBookIds(JsonGenerator json, Long shelfId, LongConsumer progress) throws IOException {
+        long afterId = 0L;
+        List<Long> batch;
+        do {
+            batch = shelfRepository.findBookIdsAfter(shelfId, afterId, PageRequest.of(0, EXPORT_BATCH_SIZE));
+            for (Long bookId : batch) {
+                json.writeNumber(bookId);
+            }
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1);
+                json.flush();
+                progress.accept(batch.size());
+            }
+        } while (batch.size() == EXPORT_BATCH_SIZE);
+    }
+
+    // Kopia jest czytana parserem strumieniowym prosto z przesłanego pliku. ID książek trafiają do bazy
+    // paczkami po IMPORT_CHUNK_SIZE, każda we własnej transakcji, więc pamięć nie zależy od wielkości pliku.
+    // Przerwany import zostawia zatwierdzone wcześniej paczki - ponowny import pominie je jako duplikaty.
+    public ImportResultDTO importUserData(Long userId, InputStream in) throws IOException {
+        BackupEvent event = BackupEvent.begin("import", "json", userId);
+        try {
+            ImportResultDTO result = readJson(userId, in);
+            event.books = result.getBooksAdded();
+            return result;
+        } finally {
+            event.commit();
+        }
     }
 
-    @Transactional
-    public void importUserData(Long userId, String json) throws Exception {
+    private ImportResultDTO readJson(Long userId, InputStream in) throws IOException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        processJsonImport(user, json);
-    }
-
-    private String generateCsvContent(User user) {
-        StringBuilder csv = new StringBuilder();
-        csv.append("Username,Email,FullName,Bio,Avatar,ShelfName,ShelfCode,BookIds\n");
-
-        for (Shelf shelf : user.getShelves()) {
-            String bookIds = shelf.getBooks().stream()
-                    .map(Book::getId)
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(";"));
-
-            csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s\n",
-                    escapeCsv(user.getUsername()),
-                    escapeCsv(user.getEmail()),
-                    escapeCsv(user.getFullName()),
-                    escapeCsv(user.getBio()),
-                    escapeCsv(user.getAvatar()),
-                    escapeCsv(shelf.getName()),
-                    escapeCsv(shelf.getShelfCode()),
-                    bookIds));
+
+        ImportResultDTO result = new ImportResultDTO();
+        Map<String, Long> shelfIdsByCode = new HashMap<>();
+        transactionTemplate.execute(status -> {
+            for (Shelf shelf : shelfRepository.findAllByUser(user)) {
+                shelfIdsByCode.putIfAbsent(shelf.getShelfCode(), shelf.getId());
+            }
+            return null;
+        });
+
+        String bio = null;
+        String avatar = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Niepoprawny format kopii zapasowej");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "bio" -> bio = parser.getValueAsString();
+                    case "avatar" -> avatar = parser.getValueAsString();
+                    case "shelves" -> importShelves(parser, user, shelfIdsByCode, result);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (bio != null || avatar != null) {
+            if (bio != null) user.setBio(bio);
+            if (avatar != null) user.setAvatar(avatar);
+            transactionTemplate.execute(status -> userRepository.save(user));
+        }
+
+        exploreFeedService.evictUser(user.getId());
+        log.info("Import kopii użytkownika {}: dodano {} książek, pominięto {} (już na półce: {}, nieznane: {})",
+                user.getUsername(), result.getBooksAdded(),
+                result.getBooksAlreadyOnShelf() + result.getUnknownBooks(),
+                result.getBooksAlreadyOnShelf(), result.getUnknownBooks());
+        return result;
+    }
+
+    private void importShelves(JsonParser parser, User user, Map<String, Long> shelfIdsByCode,
+                               ImportResultDTO result) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
         }
-        return csv.toString();
-    }
-
-    private byte[] generatePdfContent(User user) {
-        StringBuilder pdf = new StringBuilder();
-        pdf.append("%PDF-1.4\n");
-        pdf.append("1 0 obj\n<<\n/Type /Catalog\n>>\nendobj\n");
-        pdf.append("2 0 obj\n<<\n/Type /Pages\n/Kids [3 0 R]\n/Count 1\n>>\nendobj\n");
-        pdf.append("3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n/MediaBox [0 0 612 792]\n/Contents 4 0 R\n>>\nendobj\n");
-        pdf.append("4 0 obj\n<<\n/Length 100\n>>\nstream\n");
-        pdf.append("BT\n/F1 12 Tf\n100 700 Td\n(Backup dla: ").append(user.getUsername()).append(") Tj\nET\n");
-        pdf.append("endstream\nendobj\n");
-        pdf.append("trailer\n<<\n/Root 1 0 R\n>>\n%%EOF\n");
-        return pdf.toString().getBytes();
-    }
-
-    private String generateJsonContent(User user) throws Exception {
-        BackupDTO backup = new BackupDTO();
-        backup.setUsername(user.getUsername());
-        backup.setEmail(user.getEmail());
-        backup.setFullName(user.getFullName());
-        backup.setBio(user.getBio());
-        backup.setAvatar(user.getAvatar());
-
-        List<BackupDTO.ShelfBackupDTO> shelfDTOs = user.getShelves().stream().map(shelf -> {
-            BackupDTO.ShelfBackupDTO sDto = new BackupDTO.ShelfBackupDTO();
-            sDto.setName(shelf.getName());
-            sDto.setCode(shelf.getShelfCode());
-            sDto.setBookIds(shelf.getBooks().stream().map(Book::getId).collect(Collectors.toList()));
-            return sDto;
-        }).collect(Collectors.toList());
-
-        backup.setShelves(shelfDTOs);
-        return objectMapper.writeValueAsString(backup);
-    }
-
-    private void processJsonImport(User user, String json) throws Exception {
-        BackupDTO backup = objectMapper.readValue(json, BackupDTO.class);
-
-        if (backup.getBio() != null) user.setBio(backup.getBio());
-        if (backup.getAvatar() != null) user.setAvatar(backup.getAvatar());
-        userRepository.save(user);
-
-        if (backup.getShelves() != null) {
-            for (BackupDTO.ShelfBackupDTO shelfDto : backup.getShelves()) {
-                Shelf shelf = shelfRepository.findByShelfCodeAndUser(shelfDto.getCode(), user)
-                        .orElseGet(() -> {
-                            Shelf newShelf = new Shelf();
-                            newShelf.setName(shelfDto.getName());
-                            newShelf.setShelfCode(shelfDto.getCode());
-                            newShelf.setUser(user);
-                            newShelf.setBooks(new ArrayList<>());
-                            return shelfRepository.save(newShelf);
-                        });
-
-                if (shelfDto.getBookIds() != null) {
-                    for (Long bookId : shelfDto.getBookIds()) {
-                        bookRepository.findById(bookId).ifPresent(book -> {
-                            if (!shelf.getBooks().contains(book)) {
-                                shelf.getBooks().add(book);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            String code = null;
+            boolean nameSeen = false;
+            boolean codeSeen = false;
+            Long shelfId = null;
+            List<Long> pending = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("name".equals(field)) {
+                    name = parser.getValueAsString();
+                    nameSeen = true;
+                } else if ("code".equals(field)) {
+                    code = parser.getValueAsString();
+                    codeSeen = true;
+                } else if ("bookIds".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                            pending.add(parser.getLongValue());
+                        } else {
+                            parser.skipChildren();
+                            result.setUnknownBooks(result.getUnknownBooks() + 1);
+                        }
+                        // Dopóki nie znamy nazwy i kodu półki, ID buforujemy do końca obiektu
+                        if (pending.size() >= IMPORT_CHUNK_SIZE && nameSeen && codeSeen) {
+                            if (shelfId == null) {
+                                shelfId = resolveShelf(user, name, code, shelfIdsByCode, result);
                             }
-                        });
+                            importChunk(shelfId, pending, result);
+                            pending.clear();
+                        }
                     }
-                    shelfRepository.save(shelf);
+                } else {
+                    parser.skipChildren();
                 }
             }
+
+            if (shelfId == null) {
+                shelfId = resolveShelf(user, name, code, shelfIdsByCode, result);
+            }
+            if (!pending.isEmpty()) {
+                importChunk(shelfId, pending, result);
+            }
         }
     }
 
+    private Long resolveShelf(User user, String name, String code, Map<String, Long> shelfIdsByCode,
+                              ImportResultDTO result) {
+        Long existing = shelfIdsByCode.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        Shelf saved = transactionTemplate.execute(status -> {
+            Shelf newShelf = new Shelf();
+            newShelf.setName(name);
+            newShelf.setShelfCode(code);
+            newShelf.setUser(user);
+            newShelf.setBooks(new HashSet<>());
+            return shelfRepository.save(newShelf);
+        });
+        shelfIdsByCode.put(code, saved.getId());
+        result.setShelvesCreated(result.getShelvesCreated() + 1);
+        return saved.getId();
+    }
+
+    private void importChunk(Long shelfId, List<Long> bookIds, ImportResultDTO result) {
+        Set<Long> candidates = new LinkedHashSet<>(bookIds);
+        int repeatedInChunk = bookIds.size() - candidates.size();
+
+        transactionTemplate.execute(status -> {
+            Set<Long> known = new HashSet<>(bookRepository.findExistingIds(candidates));
+            Set<Long> onShelf = shelfMembershipRepository.findBookIds(shelfId, known);
+
+            List<Long> toInsert = new ArrayList<>();
+            for (Long bookId : candidates) {
+                if (!known.contains(bookId)) {
+                    result.setUnknownBooks(result.getUnknownBooks() + 1);
+                } else if (onShelf.contains(bookId)) {
+                    result.setBooksAlreadyOnShelf(result.getBooksAlreadyOnShelf() + 1);
+                } else {
+                    toInsert.add(bookId);
+                }
+            }
+            result.setBooksAdded(result.getBooksAdded() + shelfMembershipRepository.insertAll(shelfId, toInsert));
+            return null;
+        });
+        result.setBooksAlreadyOnShelf(result.getBooksAlreadyOnShelf() + repeatedInChunk);
+    }
+
     private String escapeCsv(String value) {
         if (value == null) return "";
         if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
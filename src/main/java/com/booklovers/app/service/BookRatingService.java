@@ -0,0 +1,105 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.model.BookRatingSummary;
+import com.booklovers.app.repository.BookRatingSummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class BookRatingService {
+
+    private final BookRatingSummaryRepository summaryRepository;
+    private final BookSearchService bookSearchService;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookRatingService(BookRatingSummaryRepository summaryRepository, BookSearchService bookSearchService,
+                             TransactionTemplate transactionTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.bookSearchService = bookSearchService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public BookRatingSummary getSummary(Long bookId) {
+        return summaryRepository.findById(bookId).orElseGet(() -> new BookRatingSummary(bookId));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, BookRatingSummary> getSummaries(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        return summaryRepository.findAllById(bookIds).stream()
+                .collect(Collectors.toMap(BookRatingSummary::getBookId, Function.identity()));
+    }
+
+    @Transactional
+    public void createEmptySummary(Long bookId) {
+        summaryRepository.save(new BookRatingSummary(bookId));
+    }
+
+    @Transactional
+    public void recordRating(Long bookId, int rating) {
+        validateRating(rating);
+        if (summaryRepository.applyRating(bookId, rating, 1) == 0) {
+            summaryRepository.insertEmptyIfAbsent(bookId);
+            summaryRepository.applyRating(bookId, rating, 1);
+        }
+        bookSearchService.reviewCountChanged(bookId, 1);
+    }
+
+    @Transactional
+    public void removeRating(Long bookId, int rating) {
+        validateRating(rating);
+        if (summaryRepository.applyRating(bookId, rating, -1) == 0) {
+            log.warn("Brak podsumowania ocen dla książki ID: {} - wymagana przebudowa", bookId);
+            return;
+        }
+        bookSearchService.reviewCountChanged(bookId, -1);
+    }
+
+    @Transactional
+    public void removeBook(Long bookId) {
+        summaryRepository.deleteByBookId(bookId);
+    }
+
+    @Transactional
+    public int rebuild() {
+        summaryRepository.deleteAllSummaries();
+        int rows = summaryRepository.rebuildFromReviews();
+        bookSearchService.reviewCountsRebuilt();
+        log.info("Przebudowano podsumowania ocen dla {} książek", rows);
+        return rows;
+    }
+
+    // Podsumowania są utrzymywane przyrostowo, więc przy starcie budujemy je tylko w pustej tabeli
+    // (nowa baza). Pełną przebudowę uruchamia administrator albo odtworzenie zrzutu.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (summaryRepository.count() > 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        } catch (DataIntegrityViolationException e) {
+            log.info("Podsumowania ocen zostały już zbudowane przez inny węzeł");
+        }
+    }
+
+    private void validateRating(int rating) {
+        if (rating < 1 || rating > 10) {
+            throw new IllegalArgumentException("Ocena poza zakresem 1-10: " + rating);
+        }
+    }
+}
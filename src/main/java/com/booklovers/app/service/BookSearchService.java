@@ -0,0 +1,97 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.BookSuggestionDTO;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
+import com.booklovers.app.repository.BookRatingSummaryRepository;
+import com.booklovers.app.repository.StatisticsRepository;
+import com.booklovers.app.search.BookSearchIndex;
+import com.booklovers.app.search.BookSuggestionIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Slf4j
+public class BookSearchService {
+
+    private static final int MAX_SUGGESTIONS = 25;
+
+    private final StatisticsRepository statisticsRepository;
+    private final BookRatingSummaryRepository summaryRepository;
+    private volatile BookSearchIndex index = new BookSearchIndex();
+    private volatile BookSuggestionIndex suggestions = new BookSuggestionIndex();
+
+    public BookSearchService(StatisticsRepository statisticsRepository,
+                             BookRatingSummaryRepository summaryRepository) {
+        this.statisticsRepository = statisticsRepository;
+        this.summaryRepository = summaryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        BookSearchIndex fresh = new BookSearchIndex();
+        BookSuggestionIndex freshSuggestions = new BookSuggestionIndex();
+        for (Book book : statisticsRepository.getAllBooksRaw()) {
+            fresh.put(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn());
+            freshSuggestions.put(book.getId(), book.getTitle(), book.getAuthor());
+        }
+        loadReviewCounts(freshSuggestions);
+        index = fresh;
+        suggestions = freshSuggestions;
+        log.info("Zbudowano indeks wyszukiwania: {} książek w {} ms",
+                fresh.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<Long> search(String query) {
+        return index.search(query);
+    }
+
+    public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+        return suggestions.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    public void bookSaved(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        String isbn = book.getIsbn();
+        TransactionHooks.afterCommit(() -> {
+            index.put(id, title, author, isbn);
+            suggestions.put(id, title, author);
+        });
+    }
+
+    public void titleChanged(Long bookId, String newTitle) {
+        TransactionHooks.afterCommit(() -> {
+            index.updateTitle(bookId, newTitle);
+            suggestions.updateTitle(bookId, newTitle);
+        });
+    }
+
+    public void bookDeleted(Long bookId) {
+        TransactionHooks.afterCommit(() -> {
+            index.remove(bookId);
+            suggestions.remove(bookId);
+        });
+    }
+
+    public void reviewCountChanged(Long bookId, long delta) {
+        TransactionHooks.afterCommit(() -> suggestions.adjustReviewCount(bookId, delta));
+    }
+
+    public void reviewCountsRebuilt() {
+        TransactionHooks.afterCommit(() -> loadReviewCounts(suggestions));
+    }
+
+    private void loadReviewCounts(BookSuggestionIndex target) {
+        target.clearReviewCounts();
+        for (BookRatingSummary summary : summaryRepository.findAll()) {
+            target.setReviewCount(summary.getBookId(), summary.getReviewCount());
+        }
+    }
+}
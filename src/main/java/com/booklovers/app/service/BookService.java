@@ -1,49 +1,75 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.dto.BookExplorePageDTO;
 import com.booklovers.app.dto.BookRequest;
 import com.booklovers.app.dto.BookStatsDTO;
 import com.booklovers.app.dto.ReviewRequest;
+import com.booklovers.app.jfr.ExploreEvent;
+import com.booklovers.app.jfr.ReviewEvent;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
 import com.booklovers.app.model.Review;
-import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.BookRepository;
 import com.booklovers.app.repository.ReviewRepository;
-import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.StatisticsRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.search.IsbnNormalizer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class BookService {
 
+    public static final int EXPLORE_PAGE_SIZE = 20;
+    private static final int MAX_EXPLORE_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final ReviewRepository reviewRepository;
-    private final ShelfRepository shelfRepository;
     private final UserRepository userRepository;
     private final StatisticsRepository statisticsRepository;
+    private final BookRatingService bookRatingService;
+    private final BookSearchService bookSearchService;
+    private final ExploreFeedService exploreFeedService;
+    private final ShelfActivityService shelfActivityService;
+    private final ShelfMembershipRepository shelfMembershipRepository;
 
     public BookService(BookRepository bookRepository,
                        ReviewRepository reviewRepository,
-                       ShelfRepository shelfRepository,
                        UserRepository userRepository,
-                       StatisticsRepository statisticsRepository) {
+                       StatisticsRepository statisticsRepository,
+                       BookRatingService bookRatingService,
+                       BookSearchService bookSearchService,
+                       ExploreFeedService exploreFeedService,
+                       ShelfActivityService shelfActivityService,
+                       ShelfMembershipRepository shelfMembershipRepository) {
         this.bookRepository = bookRepository;
         this.reviewRepository = reviewRepository;
-        this.shelfRepository = shelfRepository;
         this.userRepository = userRepository;
         this.statisticsRepository = statisticsRepository;
+        this.bookRatingService = bookRatingService;
+        this.bookSearchService = bookSearchService;
+        this.exploreFeedService = exploreFeedService;
+        this.shelfActivityService = shelfActivityService;
+        this.shelfMembershipRepository = shelfMembershipRepository;
     }
 
     @Transactional(readOnly = true)
@@ -71,13 +97,69 @@ public class BookService {
     }
 
     @Transactional(readOnly = true)
-    public List<BookExploreDTO> exploreBooks(String query) {
-        List<Book> books;
-        if (query == null || query.isBlank()) {
-            books = bookRepository.findAll();
-        } else {
-            books = bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(query, query, query);
+    public BookExplorePageDTO exploreBooks(String query, String cursor, int size) {
+        ExploreEvent event = new ExploreEvent();
+        event.begin();
+        BookExplorePageDTO page = findExplorePage(query, cursor, size);
+        event.kind = query == null || query.isBlank() ? "books" : "search";
+        event.query = query;
+        event.cursor = cursor;
+        event.rows = page.getBooks().size();
+        event.commit();
+        return page;
+    }
+
+    private BookExplorePageDTO findExplorePage(String query, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_EXPLORE_PAGE_SIZE));
+        if (query != null && !query.isBlank()) {
+            if (cursor == null && IsbnNormalizer.looksLikeIsbn(query)) {
+                Optional<Book> exact = bookRepository.findByIsbn13(IsbnNormalizer.toIsbn13(query));
+                if (exact.isPresent()) {
+                    return new BookExplorePageDTO(toExploreDTOs(List.of(exact.get())), null);
+                }
+            }
+            return searchBooks(query.trim(), cursor, pageSize);
+        }
+
+        long afterId = Cursors.decode(cursor, 0L);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (books.size() > pageSize) {
+            books = books.subList(0, pageSize);
+            nextCursor = Cursors.encode(books.get(pageSize - 1).getId());
+        }
+
+        return new BookExplorePageDTO(toExploreDTOs(books), nextCursor);
+    }
+
+    // Wyniki są uszeregowane według trafności, więc kursor to pozycja w rankingu, a nie ID.
+    private BookExplorePageDTO searchBooks(String query, String cursor, int pageSize) {
+        List<Long> rankedIds = bookSearchService.search(query);
+        int from = (int) Math.min(Cursors.decode(cursor, 0L), rankedIds.size());
+        int to = Math.min(from + pageSize, rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new BookExplorePageDTO(List.of(), null);
+        }
+
+        Map<Long, Book> booksById = bookRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        List<Book> books = pageIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        String nextCursor = to < rankedIds.size() ? Cursors.encode(to) : null;
+        return new BookExplorePageDTO(toExploreDTOs(books), nextCursor);
+    }
+
+    private List<BookExploreDTO> toExploreDTOs(List<Book> books) {
+        if (books.isEmpty()) {
+            return List.of();
         }
+        Map<Long, BookRatingSummary> ratingsByBook =
+                bookRatingService.getSummaries(books.stream().map(Book::getId).toList());
 
         return books.stream().map(book -> {
             BookExploreDTO dto = new BookExploreDTO();
@@ -86,36 +168,37 @@ public class BookService {
             dto.setAuthor(book.getAuthor());
             dto.setIsbn(book.getIsbn());
 
-            List<Review> reviews = reviewRepository.findByBookId(book.getId());
-            dto.setReviewCount(reviews.size());
-            double avg = reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
-            dto.setAverageRating(Math.round(avg * 10.0) / 10.0);
+            BookRatingSummary rating = ratingsByBook.get(book.getId());
+            dto.setReviewCount(rating != null ? (int) rating.getReviewCount() : 0);
+            dto.setAverageRating(rating != null ? rating.getAverageRating() : 0.0);
             return dto;
         }).collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public BookRatingSummary getRatingSummary(Long bookId) {
+        return bookRatingService.getSummary(bookId);
+    }
+
     @Transactional(readOnly = true)
     public BookStatsDTO getBookStats(Long bookId) {
         Book book = getBookById(bookId);
-        List<Review> reviews = reviewRepository.findByBookId(bookId);
+        BookRatingSummary summary = bookRatingService.getSummary(bookId);
 
         BookStatsDTO stats = new BookStatsDTO();
         stats.setBookId(book.getId());
         stats.setTitle(book.getTitle());
-
-        double avg = reviews.stream().mapToInt(Review::getRating).average().orElse(0.0);
-        stats.setAverageRating(Math.round(avg * 10.0) / 10.0);
-
-        Map<Integer, Long> distribution = reviews.stream()
-                .collect(Collectors.groupingBy(Review::getRating, Collectors.counting()));
-        stats.setRatingDistribution(distribution);
-        stats.setTotalReaders(reviews.size());
+        stats.setAverageRating(summary.getAverageRating());
+        stats.setRatingDistribution(summary.getDistribution());
+        stats.setTotalReaders((int) summary.getReviewCount());
 
         return stats;
     }
 
     @Transactional
     public void addReview(Long bookId, String username, ReviewRequest request) {
+        ReviewEvent event = new ReviewEvent();
+        event.begin();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Nie znaleziono użytkownika"));
         Book book = getBookById(bookId);
@@ -132,42 +215,103 @@ public class BookService {
         review.setCreatedAt(LocalDateTime.now());
 
         reviewRepository.save(review);
+        bookRatingService.recordRating(book.getId(), review.getRating());
+        shelfActivityService.recordReview(user, book, review.getRating());
         log.info("Dodano recenzję dla książki {} od {}", bookId, username);
+
+        event.bookId = bookId;
+        event.username = username;
+        event.rating = review.getRating();
+        event.commit();
     }
 
     @Transactional
     public void deleteBook(Long bookId) {
         Book book = getBookById(bookId);
-        for (Shelf shelf : book.getShelves()) {
-            shelf.getBooks().remove(book);
-            shelfRepository.save(shelf);
-        }
+        shelfMembershipRepository.deleteByBookId(bookId);
+        // Kaskada z encji usuwałaby recenzje pojedynczo, po jednym DELETE na wiersz.
+        reviewRepository.deleteByBookId(bookId);
         bookRepository.delete(book);
+        bookRatingService.removeBook(bookId);
+        bookSearchService.bookDeleted(bookId);
+        exploreFeedService.evictAll();
         log.info("Usunięto książkę ID: {}", bookId);
     }
 
     @Transactional
     public int updateTitleRaw(Long id, String newTitle) {
-        return statisticsRepository.updateTitleRaw(id, newTitle);
+        int updated = statisticsRepository.updateTitleRaw(id, newTitle);
+        if (updated > 0) {
+            bookSearchService.titleChanged(id, newTitle);
+            exploreFeedService.evictAll();
+        }
+        return updated;
     }
 
     @Transactional
     public Book createBook(BookRequest request) {
+        ensureIsbnAvailable(request.getIsbn(), null);
         Book book = new Book();
         book.setTitle(request.getTitle());
         book.setAuthor(request.getAuthor());
         book.setIsbn(request.getIsbn());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookRatingService.createEmptySummary(saved.getId());
+        bookSearchService.bookSaved(saved);
+        return saved;
     }
 
     @Transactional
     public Book updateBook(Long id, BookRequest request) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Książka nie istnieje"));
+        ensureIsbnAvailable(request.getIsbn(), id);
         book.setTitle(request.getTitle());
         book.setAuthor(request.getAuthor());
         book.setIsbn(request.getIsbn());
 
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchService.bookSaved(saved);
+        exploreFeedService.evictAll();
+        return saved;
+    }
+
+    private void ensureIsbnAvailable(String isbn, Long bookId) {
+        String isbn13 = IsbnNormalizer.toIsbn13(isbn);
+        if (isbn13 == null) {
+            return;
+        }
+        bookRepository.findByIsbn13(isbn13)
+                .filter(other -> !other.getId().equals(bookId))
+                .ifPresent(other -> {
+                    throw new IllegalStateException("Książka o numerze ISBN " + isbn + " już istnieje (ID: " + other.getId() + ")");
+                });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIsbn13() {
+        List<Book> missing = bookRepository.findIsbn13BackfillCandidates();
+        if (missing.isEmpty()) {
+            return;
+        }
+        // Duplikaty zostają bez isbn13 - updateBook odrzuci ich edycję (ensureIsbnAvailable), dopóki ISBN nie zostanie poprawiony.
+        Set<String> assigned = new HashSet<>(bookRepository.findAssignedIsbn13());
+        int updated = 0;
+        for (Book book : missing) {
+            String isbn13 = IsbnNormalizer.toIsbn13(book.getIsbn());
+            if (isbn13 == null) {
+                continue;
+            }
+            if (!assigned.add(isbn13)) {
+                log.warn("Pominięto książkę ID: {} - ISBN {} jest już przypisany innej książce", book.getId(), isbn13);
+                continue;
+            }
+            book.setIsbn13(isbn13);
+            updated++;
+        }
+        if (updated > 0) {
+            log.info("Uzupełniono znormalizowany ISBN-13 dla {} książek", updated);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,30 @@
+package com.booklovers.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class Cursors {
+
+    private Cursors() {
+    }
+
+    static String encode(long position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String cursor, long defaultValue) {
+        if (cursor == null || cursor.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            long position = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (position < 0) {
+                throw new IllegalArgumentException();
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Niepoprawny kursor stronicowania");
+        }
+    }
+}
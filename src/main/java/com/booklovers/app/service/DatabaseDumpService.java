@@ -0,0 +1,175 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.DumpResultDTO;
+import com.booklovers.app.dump.DumpReader;
+import com.booklovers.app.dump.DumpTable;
+import com.booklovers.app.dump.DumpWriter;
+import com.booklovers.app.repository.DatabaseDumpRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Zrzut całej bazy (książki, użytkownicy, półki, recenzje) w zwartym formacie binarnym,
+// służący do przenoszenia danych między profilami H2 i PostgreSQL.
+@Service
+@Slf4j
+public class DatabaseDumpService {
+
+    static final String FILE_EXTENSION = ".bldump";
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final DatabaseDumpRepository dumpRepository;
+    private final BookRatingService bookRatingService;
+    private final BookSearchService bookSearchService;
+    private final ExploreFeedService exploreFeedService;
+    private final CustomUserDetailsService userDetailsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+
+    public DatabaseDumpService(DatabaseDumpRepository dumpRepository,
+                               BookRatingService bookRatingService,
+                               BookSearchService bookSearchService,
+                               ExploreFeedService exploreFeedService,
+                               CustomUserDetailsService userDetailsService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.admin.dump.directory:uploads}") String directory) {
+        this.dumpRepository = dumpRepository;
+        this.bookRatingService = bookRatingService;
+        this.bookSearchService = bookSearchService;
+        this.exploreFeedService = exploreFeedService;
+        this.userDetailsService = userDetailsService;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Path.of(directory);
+    }
+
+    // REPEATABLE_READ daje spójny obraz wszystkich tabel przy współbieżnych zmianach.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public DumpResultDTO dump() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        String fileName = "database-" + LocalDateTime.now().format(FILE_TIMESTAMP) + FILE_EXTENSION;
+        Path part = directory.resolve(fileName + ".part");
+
+        Map<String, Long> rows = new LinkedHashMap<>();
+        long size;
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DumpWriter writer = new DumpWriter(channel);
+            for (DumpTable table : DatabaseDumpRepository.TABLES) {
+                writer.beginTable(table);
+                dumpRepository.streamRows(table, values -> {
+                    try {
+                        writer.writeRow(values);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                rows.put(table.name(), writer.endTable());
+            }
+            writer.finish();
+            channel.force(false);
+            size = writer.getBytesWritten();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(part);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Zapisano zrzut bazy {} ({} B) w {} ms: {}", fileName, size, durationMs, rows);
+        return new DumpResultDTO(fileName, size, rows, durationMs);
+    }
+
+    // Odtworzenie zastępuje całą zawartość bazy - błąd w dowolnej tabeli wycofuje wszystko.
+    // Liczniki IDENTITY przestawiamy dopiero po commicie, bo w H2 polecenie DDL zatwierdza transakcję.
+    public DumpResultDTO restore(String fileName) throws IOException {
+        long start = System.nanoTime();
+        Path file = resolveDumpFile(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new RuntimeException("Plik zrzutu nie istnieje: " + fileName);
+        }
+
+        Map<String, Long> rows;
+        try {
+            rows = transactionTemplate.execute(status -> {
+                try {
+                    Map<String, Long> restored = loadDump(file);
+                    bookRatingService.rebuild();
+                    return restored;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        dumpRepository.resetIdentities();
+        bookSearchService.rebuild();
+        exploreFeedService.evictAll();
+        userDetailsService.evictAll();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Odtworzono bazę z pliku {} w {} ms: {}", fileName, durationMs, rows);
+        return new DumpResultDTO(fileName, Files.size(file), rows, durationMs);
+    }
+
+    private Map<String, Long> loadDump(Path file) throws IOException {
+        Map<String, Long> rows = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DumpReader reader = new DumpReader(channel);
+            dumpRepository.deleteAll();
+
+            DumpTable table;
+            while ((table = reader.nextTable()) != null) {
+                DumpTable target = dumpRepository.resolve(table);
+                List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+                long count = 0;
+                Object[] values;
+                while ((values = reader.nextRow()) != null) {
+                    batch.add(values);
+                    count++;
+                    if (batch.size() == INSERT_BATCH_SIZE) {
+                        dumpRepository.insertAll(target, batch);
+                        batch.clear();
+                    }
+                }
+                dumpRepository.insertAll(target, batch);
+                rows.put(target.name(), count);
+            }
+        }
+        return rows;
+    }
+
+    // Przyjmujemy wyłącznie nazwę pliku z katalogu zrzutów - bez ścieżek względnych.
+    private Path resolveDumpFile(String fileName) {
+        if (fileName == null || !fileName.endsWith(FILE_EXTENSION)
+                || !fileName.equals(Path.of(fileName).getFileName().toString())
+                || fileName.startsWith(".")) {
+            throw new IllegalArgumentException("Niepoprawna nazwa pliku zrzutu: " + fileName);
+        }
+        return directory.resolve(fileName);
+    }
+}
@@ -0,0 +1,138 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.ExploreDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.jfr.ExploreEvent;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.ShelfRepository.ExploreBookRow;
+import com.booklovers.app.repository.ShelfRepository.ExploreShelfRow;
+import com.booklovers.app.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class ExploreFeedService implements MeterBinder {
+
+    private static final int MAX_EXPLORE_PAGE_SIZE = 50;
+    private static final int MAX_BOOKS_PER_SHELF = 5;
+    // Waga wpisu to liczba półek i książek w podsumowaniu, więc limit dotyczy rozmiaru danych, a nie liczby użytkowników.
+    private static final long MAX_CACHED_WEIGHT = 50_000;
+
+    private final UserRepository userRepository;
+    private final ShelfRepository shelfRepository;
+    private final Cache<Long, ExploreDTO> feedCache = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_WEIGHT)
+            .weigher((Long userId, ExploreDTO feed) -> weight(feed))
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .recordStats()
+            .build();
+
+    public ExploreFeedService(UserRepository userRepository, ShelfRepository shelfRepository) {
+        this.userRepository = userRepository;
+        this.shelfRepository = shelfRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public ExplorePageDTO getPage(String cursor, int size) {
+        ExploreEvent event = new ExploreEvent();
+        event.begin();
+        int pageSize = Math.max(1, Math.min(size, MAX_EXPLORE_PAGE_SIZE));
+        long afterId = Cursors.decode(cursor, 0L);
+        List<Long> userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (userIds.size() > pageSize) {
+            userIds = userIds.subList(0, pageSize);
+            nextCursor = Cursors.encode(userIds.get(pageSize - 1));
+        }
+
+        List<ExploreDTO> result = List.of();
+        if (!userIds.isEmpty()) {
+            Map<Long, ExploreDTO> feeds = feedCache.getAll(userIds, this::loadFeeds);
+            result = userIds.stream().map(feeds::get).filter(Objects::nonNull).toList();
+        }
+        event.kind = "shelves";
+        event.cursor = cursor;
+        event.rows = result.size();
+        event.commit();
+        return new ExplorePageDTO(result, nextCursor);
+    }
+
+    public void evictUser(Long userId) {
+        if (userId != null) {
+            TransactionHooks.afterCommit(() -> feedCache.invalidate(userId));
+        }
+    }
+
+    public void evictAll() {
+        TransactionHooks.afterCommit(feedCache::invalidateAll);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, feedCache, "exploreFeed");
+    }
+
+    private Map<Long, ExploreDTO> loadFeeds(Set<? extends Long> userIds) {
+        log.debug("Budowanie feedu Explore dla {} użytkowników", userIds.size());
+        Map<Long, ExploreDTO> feeds = new LinkedHashMap<>();
+        Map<Long, ExploreDTO.ShelfSummary> shelves = new HashMap<>();
+
+        for (ExploreShelfRow row : shelfRepository.findExploreShelfRows(List.copyOf(userIds))) {
+            ExploreDTO feed = feeds.computeIfAbsent(row.getUserId(), id -> {
+                ExploreDTO dto = new ExploreDTO();
+                dto.setUsername(row.getUsername());
+                dto.setShelves(new ArrayList<>());
+                return dto;
+            });
+            if (row.getShelfId() == null) {
+                continue;
+            }
+            ExploreDTO.ShelfSummary shelf = new ExploreDTO.ShelfSummary();
+            shelf.setShelfName(row.getShelfName());
+            shelf.setShelfCode(row.getShelfCode());
+            shelf.setBookCount(row.getBookCount());
+            shelf.setBooks(new ArrayList<>());
+            feed.getShelves().add(shelf);
+            shelves.put(row.getShelfId(), shelf);
+        }
+
+        if (!shelves.isEmpty()) {
+            for (ExploreBookRow row : shelfRepository.findExploreTopBooks(List.copyOf(userIds), MAX_BOOKS_PER_SHELF)) {
+                ExploreDTO.ShelfSummary shelf = shelves.get(row.getShelfId());
+                if (shelf != null) {
+                    ExploreDTO.BookSummary book = new ExploreDTO.BookSummary();
+                    book.setTitle(row.getTitle());
+                    book.setAuthor(row.getAuthor());
+                    shelf.getBooks().add(book);
+                }
+            }
+        }
+        return feeds;
+    }
+
+    private static int weight(ExploreDTO feed) {
+        int weight = 1;
+        for (ExploreDTO.ShelfSummary shelf : feed.getShelves()) {
+            weight += 1 + shelf.getBooks().size();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,125 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.FlightRecordingDTO;
+import com.booklovers.app.jfr.BackupEvent;
+import com.booklovers.app.jfr.BookDetailsEvent;
+import com.booklovers.app.jfr.ExploreEvent;
+import com.booklovers.app.jfr.LoginEvent;
+import com.booklovers.app.jfr.ReviewEvent;
+import com.booklovers.app.jfr.ShelfMoveEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Nagrywanie Java Flight Recorder uruchamiane przez administratora na działającej instancji, bez agentów.
+// Naraz trwa co najwyżej jedno nagranie; po max-duration JFR zatrzymuje je sam, a plik czeka na pobranie.
+@Service
+@Slf4j
+public class FlightRecordingService {
+
+    static final String FILE_EXTENSION = ".jfr";
+    private static final String RECORDING_NAME = "booklovers";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final List<String> APP_EVENTS = List.of(ExploreEvent.NAME, BookDetailsEvent.NAME,
+            ShelfMoveEvent.NAME, ReviewEvent.NAME, BackupEvent.NAME, LoginEvent.NAME);
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private Recording recording;
+
+    public FlightRecordingService(@Value("${app.admin.jfr.directory:uploads}") String directory,
+                                  @Value("${app.admin.jfr.max-duration:15m}") Duration maxDuration) {
+        this.directory = Path.of(directory);
+        this.maxDuration = maxDuration;
+    }
+
+    public synchronized FlightRecordingDTO start() throws IOException {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("Nagrywanie JFR już trwa");
+        }
+        if (recording != null) {
+            recording.close();
+        }
+
+        Recording started = new Recording(settings());
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setDuration(maxDuration);
+        started.start();
+        recording = started;
+        log.info("Rozpoczęto nagrywanie JFR (ID: {}, maks. {})", started.getId(), maxDuration);
+        return toDTO(started);
+    }
+
+    public synchronized Optional<FlightRecordingDTO> getStatus() {
+        return Optional.ofNullable(recording).map(this::toDTO);
+    }
+
+    // Zatrzymuje nagranie i zapisuje je do pliku, który kontroler odsyła i usuwa.
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("Brak nagrania JFR do pobrania");
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve("recording-" + LocalDateTime.now().format(FILE_TIMESTAMP) + FILE_EXTENSION);
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.dump(file);
+            log.info("Zakończono nagrywanie JFR (ID: {}): {} B", recording.getId(), Files.size(file));
+        } finally {
+            recording.close();
+            recording = null;
+        }
+        return file;
+    }
+
+    public void transferAndDelete(Path file, OutputStream out) throws IOException {
+        try {
+            Files.copy(file, out);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Profil "profile" z JDK, próbkowanie CPU i alokacji rzadziej (nagrywamy pod ruchem produkcyjnym),
+    // a zdarzenia aplikacji bez progu czasu i bez stosu - miejsce wywołania jest znane.
+    private static Map<String, String> settings() throws IOException {
+        Map<String, String> settings;
+        try {
+            settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        } catch (ParseException e) {
+            throw new IllegalStateException("Nie można wczytać ustawień JFR", e);
+        }
+        settings.put("jdk.ExecutionSample#period", "20 ms");
+        settings.put("jdk.ObjectAllocationSample#throttle", "150/s");
+        for (String event : APP_EVENTS) {
+            settings.put(event + "#enabled", "true");
+            settings.put(event + "#threshold", "0 ms");
+            settings.put(event + "#stackTrace", "false");
+        }
+        return settings;
+    }
+
+    private FlightRecordingDTO toDTO(Recording recording) {
+        return new FlightRecordingDTO(recording.getId(), recording.getState().name(), recording.getStartTime(),
+                maxDuration.toSeconds(), recording.getSize());
+    }
+}
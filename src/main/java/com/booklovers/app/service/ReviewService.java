@@ -1,6 +1,7 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.ReviewRequest;
+import com.booklovers.app.jfr.ReviewEvent;
 import com.booklovers.app.model.Book;
 import com.booklovers.app.model.Review;
 import com.booklovers.app.model.User;
@@ -20,15 +21,22 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
+    private final BookRatingService bookRatingService;
+    private final ShelfActivityService shelfActivityService;
 
-    public ReviewService(ReviewRepository reviewRepository, BookRepository bookRepository, UserRepository userRepository) {
+    public ReviewService(ReviewRepository reviewRepository, BookRepository bookRepository, UserRepository userRepository,
+                         BookRatingService bookRatingService, ShelfActivityService shelfActivityService) {
         this.reviewRepository = reviewRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
+        this.bookRatingService = bookRatingService;
+        this.shelfActivityService = shelfActivityService;
     }
 
     @Transactional
     public void addReview(String username, ReviewRequest request) {
+        ReviewEvent event = new ReviewEvent();
+        event.begin();
         log.info("Użytkownik {} próbuje dodać recenzję do książki ID: {}", username, request.getBookId());
 
         User user = userRepository.findByUsername(username)
@@ -50,7 +58,14 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
 
         reviewRepository.save(review);
+        bookRatingService.recordRating(book.getId(), review.getRating());
+        shelfActivityService.recordReview(user, book, review.getRating());
         log.info("Recenzja dodana pomyślnie. Ocena: {}", request.getRating());
+
+        event.bookId = book.getId();
+        event.username = username;
+        event.rating = review.getRating();
+        event.commit();
     }
 
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
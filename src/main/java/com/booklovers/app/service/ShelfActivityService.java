@@ -0,0 +1,105 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.ShelfActivityDTO;
+import com.booklovers.app.dto.ShelfActivityPageDTO;
+import com.booklovers.app.model.ActivityType;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.ShelfActivity;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.ShelfActivityBatchRepository;
+import com.booklovers.app.repository.ShelfActivityRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ShelfActivityService {
+
+    private static final int MAX_ACTIVITY_PAGE_SIZE = 100;
+
+    private final ShelfActivityRepository activityRepository;
+    private final ShelfActivityBatchRepository activityBatchRepository;
+
+    public ShelfActivityService(ShelfActivityRepository activityRepository,
+                                ShelfActivityBatchRepository activityBatchRepository) {
+        this.activityRepository = activityRepository;
+        this.activityBatchRepository = activityBatchRepository;
+    }
+
+    @Transactional
+    public void recordShelfChange(ActivityType type, User user, Book book, String shelfCode, String previousShelfCode) {
+        activityRepository.save(shelfChange(type, user, book, shelfCode, previousShelfCode));
+    }
+
+    // Buduje wpis bez zapisu, do zbiorczego zapisu przez recordAll.
+    public ShelfActivity shelfChange(ActivityType type, User user, Book book, String shelfCode, String previousShelfCode) {
+        ShelfActivity activity = newActivity(type, user, book);
+        activity.setShelfCode(shelfCode);
+        activity.setPreviousShelfCode(previousShelfCode);
+        return activity;
+    }
+
+    @Transactional
+    public void recordAll(List<ShelfActivity> activities) {
+        activityBatchRepository.insertAll(activities);
+    }
+
+    @Transactional
+    public void recordReview(User user, Book book, int rating) {
+        ShelfActivity activity = newActivity(ActivityType.REVIEWED, user, book);
+        activity.setRating(rating);
+        activityRepository.save(activity);
+    }
+
+    @Transactional
+    public void forgetUser(Long userId) {
+        activityRepository.deleteByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public ShelfActivityPageDTO getRecentActivity(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_ACTIVITY_PAGE_SIZE));
+        long beforeId = Cursors.decode(cursor, Long.MAX_VALUE);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<ShelfActivity> activities = cursor == null || cursor.isBlank()
+                ? activityRepository.findAllByOrderByIdDesc(limit)
+                : activityRepository.findByIdLessThanOrderByIdDesc(beforeId, limit);
+
+        String nextCursor = null;
+        if (activities.size() > pageSize) {
+            activities = activities.subList(0, pageSize);
+            nextCursor = Cursors.encode(activities.get(pageSize - 1).getId());
+        }
+
+        return new ShelfActivityPageDTO(activities.stream().map(this::toDTO).toList(), nextCursor);
+    }
+
+    private ShelfActivity newActivity(ActivityType type, User user, Book book) {
+        ShelfActivity activity = new ShelfActivity();
+        activity.setType(type);
+        activity.setUserId(user.getId());
+        activity.setUsername(user.getUsername());
+        activity.setBookId(book.getId());
+        activity.setBookTitle(book.getTitle());
+        activity.setBookAuthor(book.getAuthor());
+        activity.setCreatedAt(LocalDateTime.now());
+        return activity;
+    }
+
+    private ShelfActivityDTO toDTO(ShelfActivity activity) {
+        return new ShelfActivityDTO(
+                activity.getType(),
+                activity.getUsername(),
+                activity.getBookId(),
+                activity.getBookTitle(),
+                activity.getBookAuthor(),
+                activity.getShelfCode(),
+                activity.getPreviousShelfCode(),
+                activity.getRating(),
+                activity.getCreatedAt());
+    }
+}
@@ -1,18 +1,33 @@
 package com.booklovers.app.service;
 
-import com.booklovers.app.dto.ExploreDTO;
+import com.booklovers.app.dto.BulkShelfItemDTO;
+import com.booklovers.app.dto.BulkShelfResultDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.jfr.ShelfMoveEvent;
+import com.booklovers.app.model.ActivityType;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BulkShelfStatus;
 import com.booklovers.app.model.Shelf;
+import com.booklovers.app.model.ShelfActivity;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.ShelfRepository;
 import com.booklovers.app.repository.UserRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,14 +38,25 @@ public class ShelfService {
     private final ShelfRepository shelfRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
-
-    public ShelfService(ShelfRepository shelfRepository, BookRepository bookRepository, UserRepository userRepository) {
+    private final ExploreFeedService exploreFeedService;
+    private final ShelfActivityService shelfActivityService;
+    private final ShelfMembershipRepository shelfMembershipRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ShelfService(ShelfRepository shelfRepository, BookRepository bookRepository, UserRepository userRepository,
+                        ExploreFeedService exploreFeedService, ShelfActivityService shelfActivityService,
+                        ShelfMembershipRepository shelfMembershipRepository, TransactionTemplate transactionTemplate) {
         this.shelfRepository = shelfRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
+        this.exploreFeedService = exploreFeedService;
+        this.shelfActivityService = shelfActivityService;
+        this.shelfMembershipRepository = shelfMembershipRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     private static final Set<String> SYSTEM_SHELVES = Set.of("READ", "READING", "WANT_TO_READ");
+    private static final int MAX_MOVE_ATTEMPTS = 3;
 
     public void createDefaultShelves(User user) {
         log.info("Tworzenie domyślnych półek dla użytkownika: {}", user.getUsername());
@@ -47,10 +73,12 @@ public class ShelfService {
         }
         shelf.setShelfCode(code);
         shelf.setUser(user);
-        shelf.setBooks(new ArrayList<>());
+        shelf.setBooks(new HashSet<>());
 
         log.debug("Utworzono półkę '{}' (Code: {}) dla {}", name, code, user.getUsername());
-        return shelfRepository.save(shelf);
+        Shelf saved = shelfRepository.save(shelf);
+        exploreFeedService.evictUser(user.getId());
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -61,8 +89,74 @@ public class ShelfService {
         return shelfRepository.findAllByUser(user);
     }
 
-    @Transactional
     public void addBookToShelfByCode(String username, String shelfCode, Long bookId) {
+        ShelfMoveEvent event = shelfMoveEvent(username, null, shelfCode, 1);
+        withShelfVersionRetry(username, event, () -> {
+            event.changed = placeBookOnShelf(username, shelfCode, bookId) ? 1 : 0;
+            return null;
+        });
+    }
+
+    public BulkShelfResultDTO addBooksToShelf(String username, String shelfCode, List<Long> bookIds) {
+        ShelfMoveEvent event = shelfMoveEvent(username, null, shelfCode, bookIds.size());
+        return withShelfVersionRetry(username, event, () -> {
+            BulkShelfResultDTO result = placeBooks(username, null, shelfCode, bookIds);
+            event.changed = result.getChanged();
+            return result;
+        });
+    }
+
+    public BulkShelfResultDTO moveBooksBetweenShelves(String username, String fromShelfCode, String toShelfCode,
+                                                      List<Long> bookIds) {
+        if (fromShelfCode.equals(toShelfCode)) {
+            throw new IllegalArgumentException("Półka źródłowa i docelowa muszą być różne");
+        }
+        ShelfMoveEvent event = shelfMoveEvent(username, fromShelfCode, toShelfCode, bookIds.size());
+        return withShelfVersionRetry(username, event, () -> {
+            BulkShelfResultDTO result = placeBooks(username, fromShelfCode, toShelfCode, bookIds);
+            event.changed = result.getChanged();
+            return result;
+        });
+    }
+
+    private static ShelfMoveEvent shelfMoveEvent(String username, String sourceShelf, String targetShelf, int books) {
+        ShelfMoveEvent event = new ShelfMoveEvent();
+        event.username = username;
+        event.sourceShelf = sourceShelf;
+        event.targetShelf = targetShelf;
+        event.books = books;
+        event.begin();
+        return event;
+    }
+
+    // Każda próba to osobna transakcja; konflikt wersji półek ponawiamy, o ile nie działamy w transakcji wywołującego.
+    // Zdarzenie JFR obejmuje wszystkie próby i jest zapisywane także wtedy, gdy operacja się nie powiedzie.
+    private <T> T withShelfVersionRetry(String username, ShelfMoveEvent event, Supplier<T> action) {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                event.attempts = attempt;
+                try {
+                    return transactionTemplate.execute(status -> action.get());
+                } catch (OptimisticLockingFailureException e) {
+                    if (attempt >= MAX_MOVE_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                        throw new IllegalStateException("Półki zostały w międzyczasie zmienione, spróbuj ponownie", e);
+                    }
+                    log.warn("Konflikt wersji półek użytkownika {} (próba {}), ponawianie", username, attempt);
+                }
+            }
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void claimShelfVersion(User user, long version) {
+        if (!shelfMembershipRepository.claimShelfVersion(user.getId(), version)) {
+            throw new OptimisticLockingFailureException("Półki użytkownika " + user.getUsername()
+                    + " zostały zmienione równolegle");
+        }
+    }
+
+    private boolean placeBookOnShelf(String username, String shelfCode, Long bookId) {
         log.info("Użytkownik {} dodaje książkę ID={} do półki {}", username, bookId, shelfCode);
 
         User user = userRepository.findByUsername(username)
@@ -74,55 +168,146 @@ public class ShelfService {
         Shelf targetShelf = shelfRepository.findByShelfCodeAndUser(shelfCode, user)
                 .orElseThrow(() -> new RuntimeException("Nie masz półki o kodzie: " + shelfCode));
 
+        // Książka może leżeć tylko na jednej półce systemowej: jeden DELETE z pozostałych i jeden INSERT,
+        // a podbicie wersji wyklucza równoległe przeniesienie tej samej książki na inną półkę.
+        String previousShelfCode = null;
         if (SYSTEM_SHELVES.contains(shelfCode)) {
-            List<Shelf> allShelves = shelfRepository.findAllByUser(user);
-            for (Shelf s : allShelves) {
-                if (SYSTEM_SHELVES.contains(s.getShelfCode())
-                        && !s.getShelfCode().equals(shelfCode)
-                        && s.getBooks().contains(book)) {
-                    s.getBooks().remove(book);
-                    shelfRepository.save(s);
-                    log.info("Przenoszenie: Usunięto książkę z półki {}", s.getShelfCode());
-                }
+            long version = shelfMembershipRepository.findShelfVersion(user.getId());
+            previousShelfCode = shelfMembershipRepository.findShelfCodesContaining(user.getId(), book.getId()).stream()
+                    .filter(code -> SYSTEM_SHELVES.contains(code) && !code.equals(shelfCode))
+                    .findFirst()
+                    .orElse(null);
+            claimShelfVersion(user, version);
+            if (shelfMembershipRepository.deleteFromOtherShelves(user.getId(), List.of(book.getId()),
+                    targetShelf.getId(), SYSTEM_SHELVES) > 0) {
+                log.info("Przenoszenie: Usunięto książkę z półki {}", previousShelfCode);
             }
         }
 
-        if (!targetShelf.getBooks().contains(book)) {
-            targetShelf.getBooks().add(book);
-            shelfRepository.save(targetShelf);
+        boolean inserted = shelfMembershipRepository.insert(targetShelf.getId(), book.getId());
+        if (inserted) {
+            shelfActivityService.recordShelfChange(previousShelfCode != null ? ActivityType.MOVED : ActivityType.ADDED,
+                    user, book, shelfCode, previousShelfCode);
             log.info("Sukces! Książka '{}' dodana do półki {}.", book.getTitle(), shelfCode);
         } else {
             log.warn("Książka '{}' już znajduje się na tej półce.", book.getTitle());
         }
+        exploreFeedService.evictUser(user.getId());
+        return inserted;
     }
 
-    @Transactional(readOnly = true)
-    public List<ExploreDTO> getExplorePage() {
-        List<User> allUsers = userRepository.findAll();
-        log.info("Generowanie strony Explore (feed społecznościowy)");
-        return allUsers.stream().map(user -> {
-            ExploreDTO dto = new ExploreDTO();
-            dto.setUsername(user.getUsername());
-
-            List<ExploreDTO.ShelfSummary> shelfSummaries = user.getShelves().stream().map(shelf -> {
-                ExploreDTO.ShelfSummary shelfSummary = new ExploreDTO.ShelfSummary();
-                shelfSummary.setShelfName(shelf.getName());
-                shelfSummary.setShelfCode(shelf.getShelfCode());
-
-                List<ExploreDTO.BookSummary> bookSummaries = shelf.getBooks().stream().map(book -> {
-                    ExploreDTO.BookSummary bookSummary = new ExploreDTO.BookSummary();
-                    bookSummary.setTitle(book.getTitle());
-                    bookSummary.setAuthor(book.getAuthor());
-                    return bookSummary;
-                }).collect(Collectors.toList());
-
-                shelfSummary.setBooks(bookSummaries);
-                return shelfSummary;
-            }).collect(Collectors.toList());
-
-            dto.setShelves(shelfSummaries);
-            return dto;
-        }).collect(Collectors.toList());
+    // Operacja zbiorcza: jedno zapytanie o książki, jedno o przynależność, po jednym DELETE/INSERT na całą listę.
+    private BulkShelfResultDTO placeBooks(String username, String sourceShelfCode, String targetShelfCode,
+                                          List<Long> bookIds) {
+        log.info("Użytkownik {} umieszcza {} książek na półce {}", username, bookIds.size(), targetShelfCode);
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Shelf targetShelf = shelfRepository.findByShelfCodeAndUser(targetShelfCode, user)
+                .orElseThrow(() -> new RuntimeException("Nie masz półki o kodzie: " + targetShelfCode));
+        Shelf sourceShelf = sourceShelfCode == null ? null : shelfRepository.findByShelfCodeAndUser(sourceShelfCode, user)
+                .orElseThrow(() -> new RuntimeException("Nie masz półki o kodzie: " + sourceShelfCode));
+
+        boolean systemTarget = SYSTEM_SHELVES.contains(targetShelfCode);
+        long version = systemTarget ? shelfMembershipRepository.findShelfVersion(user.getId()) : 0;
+        Map<Long, Book> books = findBooks(bookIds);
+        Map<Long, List<String>> codesByBook = shelfMembershipRepository.findShelfCodesByBook(user.getId(), books.keySet());
+        if (systemTarget) {
+            claimShelfVersion(user, version);
+        }
+
+        List<BulkShelfItemDTO> items = new ArrayList<>();
+        List<Long> placed = new ArrayList<>();
+        List<Long> toInsert = new ArrayList<>();
+        List<ShelfActivity> activities = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            Book book = books.get(bookId);
+            List<String> codes = codesByBook.getOrDefault(bookId, List.of());
+            if (!seen.add(bookId)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.DUPLICATE, null));
+            } else if (book == null) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.UNKNOWN_BOOK, null));
+            } else if (sourceShelf != null && !codes.contains(sourceShelfCode)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.NOT_ON_SHELF, null));
+            } else if (sourceShelf == null && codes.contains(targetShelfCode)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.ALREADY_ON_SHELF, null));
+            } else {
+                String previousShelfCode = sourceShelf != null ? sourceShelfCode : !systemTarget ? null : codes.stream()
+                        .filter(code -> SYSTEM_SHELVES.contains(code) && !code.equals(targetShelfCode))
+                        .findFirst()
+                        .orElse(null);
+                ActivityType type = previousShelfCode != null ? ActivityType.MOVED : ActivityType.ADDED;
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.valueOf(type.name()), previousShelfCode));
+                activities.add(shelfActivityService.shelfChange(type, user, book, targetShelfCode, previousShelfCode));
+                placed.add(bookId);
+                if (!codes.contains(targetShelfCode)) {
+                    toInsert.add(bookId);
+                }
+            }
+        }
+
+        if (sourceShelf != null && !(systemTarget && SYSTEM_SHELVES.contains(sourceShelfCode))) {
+            shelfMembershipRepository.deleteAll(sourceShelf.getId(), placed);
+        }
+        if (systemTarget) {
+            shelfMembershipRepository.deleteFromOtherShelves(user.getId(), placed, targetShelf.getId(), SYSTEM_SHELVES);
+        }
+        shelfMembershipRepository.insertAll(targetShelf.getId(), toInsert);
+        shelfActivityService.recordAll(activities);
+        if (!placed.isEmpty()) {
+            exploreFeedService.evictUser(user.getId());
+        }
+        log.info("Umieszczono {} z {} książek na półce {}", placed.size(), bookIds.size(), targetShelfCode);
+        return new BulkShelfResultDTO(targetShelfCode, placed.size(), items);
+    }
+
+    @Transactional
+    public BulkShelfResultDTO removeBooksFromShelf(String username, String shelfCode, List<Long> bookIds) {
+        log.info("Użytkownik {} usuwa {} książek z półki {}", username, bookIds.size(), shelfCode);
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Shelf shelf = shelfRepository.findByShelfCodeAndUser(shelfCode, user)
+                .orElseThrow(() -> new RuntimeException("Nie masz półki o kodzie: " + shelfCode));
+
+        Map<Long, Book> books = findBooks(bookIds);
+        Set<Long> onShelf = shelfMembershipRepository.findBookIds(shelf.getId(), books.keySet());
+
+        List<BulkShelfItemDTO> items = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        List<ShelfActivity> activities = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            if (!seen.add(bookId)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.DUPLICATE, null));
+            } else if (!books.containsKey(bookId)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.UNKNOWN_BOOK, null));
+            } else if (!onShelf.contains(bookId)) {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.NOT_ON_SHELF, null));
+            } else {
+                items.add(new BulkShelfItemDTO(bookId, BulkShelfStatus.REMOVED, shelfCode));
+                activities.add(shelfActivityService.shelfChange(ActivityType.REMOVED, user, books.get(bookId),
+                        null, shelfCode));
+                removed.add(bookId);
+            }
+        }
+
+        shelfMembershipRepository.deleteAll(shelf.getId(), removed);
+        shelfActivityService.recordAll(activities);
+        if (!removed.isEmpty()) {
+            exploreFeedService.evictUser(user.getId());
+        }
+        return new BulkShelfResultDTO(shelfCode, removed.size(), items);
+    }
+
+    private Map<Long, Book> findBooks(List<Long> bookIds) {
+        return bookRepository.findAllById(new LinkedHashSet<>(bookIds)).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    public ExplorePageDTO getExplorePage(String cursor, int size) {
+        return exploreFeedService.getPage(cursor, size);
     }
 
     @Transactional
@@ -135,17 +320,14 @@ public class ShelfService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
-        List<Shelf> userShelves = shelfRepository.findAllByUser(user);
-
-        boolean removed = false;
-        for (Shelf shelf : userShelves) {
-            if (shelf.getBooks().remove(book)) {
-                shelfRepository.save(shelf);
-                removed = true;
-            }
-        }
+        List<String> shelfCodes = shelfMembershipRepository.findShelfCodesContaining(user.getId(), book.getId());
+        boolean removed = !shelfCodes.isEmpty()
+                && shelfMembershipRepository.deleteFromUserShelves(user.getId(), book.getId()) > 0;
+        String removedFrom = removed ? shelfCodes.get(0) : null;
 
         if (removed) {
+            shelfActivityService.recordShelfChange(ActivityType.REMOVED, user, book, null, removedFrom);
+            exploreFeedService.evictUser(user.getId());
             log.info("Książka usunięta z półek użytkownika.");
         } else {
             log.warn("Nie znaleziono książki na żadnej półce.");
@@ -168,6 +350,7 @@ public class ShelfService {
         }
         log.info("Usuwanie własnej półki: {} (ID: {})", shelf.getName(), shelfId);
         shelfRepository.delete(shelf);
+        exploreFeedService.evictUser(user.getId());
     }
 
     public Shelf createCustomShelf(String username, String shelfName) {
@@ -181,8 +364,10 @@ public class ShelfService {
         shelf.setName(shelfName);
         shelf.setShelfCode(shelfCode);
         shelf.setUser(user);
-        shelf.setBooks(new ArrayList<>());
+        shelf.setBooks(new HashSet<>());
 
-        return shelfRepository.save(shelf);
+        Shelf saved = shelfRepository.save(shelf);
+        exploreFeedService.evictUser(user.getId());
+        return saved;
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.ReviewRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,11 +18,16 @@ public class UserService {
     private final UserRepository userRepository;
     private final ReviewRepository reviewRepository;
     private final ShelfService shelfService;
+    private final ShelfActivityService shelfActivityService;
+    private final CustomUserDetailsService userDetailsService;
 
-    public UserService(UserRepository userRepository, ReviewRepository reviewRepository, ShelfService shelfService) {
+    public UserService(UserRepository userRepository, ReviewRepository reviewRepository, ShelfService shelfService,
+                       ShelfActivityService shelfActivityService, CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
         this.reviewRepository = reviewRepository;
         this.shelfService = shelfService;
+        this.shelfActivityService = shelfActivityService;
+        this.userDetailsService = userDetailsService;
     }
 
     @Transactional(readOnly = true)
@@ -76,6 +82,8 @@ public class UserService {
             reviewRepository.save(review);
         }
 
+        shelfActivityService.forgetUser(user.getId());
         userRepository.delete(user);
+        TransactionHooks.afterCommit(() -> userDetailsService.evict(username));
     }
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.BookRequest;
+import com.booklovers.app.dto.CacheStatsDTO;
+import com.booklovers.app.dto.DumpResultDTO;
+import com.booklovers.app.dto.FlightRecordingDTO;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.model.Book;
 import com.booklovers.app.service.AdminService;
 import com.booklovers.app.service.BookService;
+import com.booklovers.app.service.DatabaseDumpService;
+import com.booklovers.app.service.FlightRecordingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +20,13 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -24,6 +37,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class AdminControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -31,6 +45,8 @@ class AdminControllerTest {
 
     @MockBean private AdminService adminService;
     @MockBean private BookService bookService;
+    @MockBean private DatabaseDumpService databaseDumpService;
+    @MockBean private FlightRecordingService flightRecordingService;
 
     @Test
     @WithMockUser(roles = "ADMIN")
@@ -50,6 +66,121 @@ class AdminControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRebuildRatingSummaries() throws Exception {
+        when(adminService.rebuildRatingSummaries()).thenReturn(3);
+
+        mockMvc.perform(post("/api/v1/admin/ratings/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Przebudowano podsumowania ocen dla 3 książek."));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldReturnAuthCacheStats() throws Exception {
+        when(adminService.getAuthCacheStats())
+                .thenReturn(List.of(new CacheStatsDTO("userDetails", 2, 8, 2, 0.8, 0)));
+
+        mockMvc.perform(get("/api/v1/admin/security/cache-stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("userDetails"))
+                .andExpect(jsonPath("$[0].hitRate").value(0.8));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldDumpDatabase() throws Exception {
+        when(databaseDumpService.dump()).thenReturn(new DumpResultDTO("database-1.bldump", 2048,
+                Map.of("book", 10L), 15));
+
+        mockMvc.perform(post("/api/v1/admin/dump"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fileName").value("database-1.bldump"))
+                .andExpect(jsonPath("$.rows.book").value(10));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRestoreDatabase() throws Exception {
+        when(databaseDumpService.restore("database-1.bldump")).thenReturn(new DumpResultDTO("database-1.bldump", 2048,
+                Map.of("book", 10L), 40));
+
+        mockMvc.perform(post("/api/v1/admin/dump/database-1.bldump/restore"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows.book").value(10));
+
+        verify(databaseDumpService).restore("database-1.bldump");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectInvalidDumpName() throws Exception {
+        when(databaseDumpService.restore("backup.json"))
+                .thenThrow(new IllegalArgumentException("Niepoprawna nazwa pliku zrzutu: backup.json"));
+
+        mockMvc.perform(post("/api/v1/admin/dump/backup.json/restore"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldNotDumpDatabaseForRegularUser() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/dump"));
+
+        verifyNoInteractions(databaseDumpService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStartFlightRecording() throws Exception {
+        when(flightRecordingService.start())
+                .thenReturn(new FlightRecordingDTO(3, "RUNNING", Instant.parse("2026-01-01T10:00:00Z"), 900, 0));
+
+        mockMvc.perform(post("/api/v1/admin/jfr/start"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(3))
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldRejectSecondFlightRecording() throws Exception {
+        when(flightRecordingService.start()).thenThrow(new IllegalStateException("Nagrywanie JFR już trwa"));
+
+        mockMvc.perform(post("/api/v1/admin/jfr/start"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Nagrywanie JFR już trwa"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void shouldStreamFlightRecordingOnStop() throws Exception {
+        Path file = Path.of("uploads", "recording-1.jfr");
+        when(flightRecordingService.stop()).thenReturn(file);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[]{'F', 'L', 'R', 0});
+            return null;
+        }).when(flightRecordingService).transferAndDelete(eq(file), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/admin/jfr/stop"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"recording-1.jfr\""))
+                .andExpect(content().bytes(new byte[]{'F', 'L', 'R', 0}));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void shouldNotStartFlightRecordingForRegularUser() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/jfr/start"));
+
+        verifyNoInteractions(flightRecordingService);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void shouldDeleteUser() throws Exception {
@@ -1,6 +1,7 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.BookRequest;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.model.Book;
 import com.booklovers.app.service.AdminService;
 import com.booklovers.app.service.BookService;
@@ -26,6 +27,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class AdminWebControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -63,6 +65,22 @@ class AdminWebControllerTest {
         verify(bookService).updateBook(eq(1L), any(BookRequest.class));
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void shouldShowFormError_WhenIsbnAlreadyExists() throws Exception {
+        when(bookService.updateBook(eq(1L), any(BookRequest.class)))
+                .thenThrow(new IllegalStateException("Książka o numerze ISBN 1234567890 już istnieje"));
+
+        mockMvc.perform(post("/admin/books/edit/1")
+                        .with(csrf())
+                        .param("title", "Nowy Tytuł")
+                        .param("author", "Autor")
+                        .param("isbn", "1234567890"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("admin/book_edit"))
+                .andExpect(model().attributeHasFieldErrors("bookRequest", "isbn"));
+    }
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void shouldUpdateBook_ValidationErrors() throws Exception {
@@ -1,6 +1,10 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.RefreshTokenRequest;
 import com.booklovers.app.dto.RegisterRequest;
+import com.booklovers.app.dto.TokenRequest;
+import com.booklovers.app.dto.TokenResponse;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.service.AuthService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -9,18 +13,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class AuthControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -56,4 +64,49 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldIssueToken() throws Exception {
+        TokenRequest req = new TokenRequest();
+        req.setUsername("jan");
+        req.setPassword("tajne");
+
+        when(authService.issueToken(any())).thenReturn(new TokenResponse("access", "refresh", "Bearer", 900));
+
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("access"))
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900));
+    }
+
+    @Test
+    void shouldReturn401_WhenCredentialsAreInvalid() throws Exception {
+        TokenRequest req = new TokenRequest();
+        req.setUsername("jan");
+        req.setPassword("zle");
+
+        when(authService.issueToken(any())).thenThrow(new BadCredentialsException("Nieprawidłowy login lub hasło"));
+
+        mockMvc.perform(post("/api/v1/auth/token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldRefreshToken() throws Exception {
+        RefreshTokenRequest req = new RefreshTokenRequest();
+        req.setRefreshToken("refresh");
+
+        when(authService.refreshToken("refresh")).thenReturn(new TokenResponse("access2", "refresh2", "Bearer", 900));
+
+        mockMvc.perform(post("/api/v1/auth/token/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.refreshToken").value("refresh2"));
+    }
+}
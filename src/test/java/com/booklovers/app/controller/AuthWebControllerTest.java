@@ -1,6 +1,7 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.RegisterRequest;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.service.AuthService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +21,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class AuthWebControllerTest {
 
     @Autowired
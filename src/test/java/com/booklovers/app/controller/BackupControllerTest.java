@@ -1,9 +1,16 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.BackupJobDTO;
+import com.booklovers.app.dto.ImportResultDTO;
+import com.booklovers.app.metrics.StatementBudget;
+import com.booklovers.app.model.BackupJobStatus;
+import com.booklovers.app.model.BackupJobType;
 import com.booklovers.app.model.User;
+import com.booklovers.app.service.BackupJobService;
 import com.booklovers.app.service.BackupService;
 import com.booklovers.app.service.UserService;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -13,24 +20,37 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class BackupControllerTest {
 
     @Autowired private MockMvc mockMvc;
 
     @MockBean private BackupService backupService;
     @MockBean private UserService userService;
+    @MockBean private BackupJobService backupJobService;
 
     @Test
     @WithMockUser(username = "janek")
@@ -41,14 +61,64 @@ class BackupControllerTest {
         when(userService.getUserByUsername("janek")).thenReturn(user);
 
         String mockJson = "{\"username\":\"janek\"}";
-        when(backupService.exportUserData(1L)).thenReturn(mockJson);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockJson.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(backupService).writeUserData(eq(1L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/backup/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/v1/backup/export"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.json\""))
                 .andExpect(content().string(mockJson));
     }
 
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldExportProfileAsGzippedCsv() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("janek");
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/backup/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.csv.gz\""));
+
+        verify(backupService).writeUserDataAsCsv(eq(1L), any(OutputStream.class), eq(true));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldExportProfileAsPdf() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("janek");
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("%PDF-1.4".getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(backupService).writeUserDataAsPdf(eq(1L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/backup/export").param("format", "pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.pdf\""))
+                .andExpect(content().string("%PDF-1.4"));
+    }
+
     @Test
     @WithMockUser(username = "janek")
     void shouldImportProfile() throws Exception {
@@ -57,7 +127,7 @@ class BackupControllerTest {
         user.setUsername("janek");
 
         when(userService.getUserByUsername("janek")).thenReturn(user);
-        doNothing().when(backupService).importUserData(anyLong(), anyString());
+        when(backupService.importUserData(anyLong(), any(InputStream.class))).thenReturn(new ImportResultDTO(0, 3, 1, 1));
 
         MockMultipartFile file = new MockMultipartFile(
                 "file",
@@ -68,8 +138,87 @@ class BackupControllerTest {
 
         mockMvc.perform(multipart("/api/v1/backup/import").file(file))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Sukces! Zaimportowano dane."));
+                .andExpect(content().string("Sukces! Zaimportowano dane. Dodano książek: 3, pominięto: 2."));
+
+        verify(backupService).importUserData(eq(1L), any(InputStream.class));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldSubmitExportJob() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        when(backupJobService.submitExport(1L, "csv", true)).thenReturn(job("job-1", BackupJobStatus.QUEUED));
+
+        mockMvc.perform(post("/api/v1/backup/jobs/export").param("format", "csv").param("gzip", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/backup/jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldReturnConflict_WhenJobLimitReached() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        when(backupJobService.submitExport(1L, "json", false))
+                .thenThrow(new IllegalStateException("Osiągnięto limit"));
+
+        mockMvc.perform(post("/api/v1/backup/jobs/export"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldSubmitImportJob() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        when(backupJobService.submitImport(eq(1L), any(InputStream.class))).thenReturn(job("job-2", BackupJobStatus.QUEUED));
+
+        MockMultipartFile file = new MockMultipartFile("file", "backup.json", MediaType.APPLICATION_JSON_VALUE, "{}".getBytes());
+
+        mockMvc.perform(multipart("/api/v1/backup/jobs/import").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-2"));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldReturnJobStatusAndNotFoundForUnknownJob() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        when(backupJobService.getJob(1L, "job-1")).thenReturn(Optional.of(job("job-1", BackupJobStatus.RUNNING)));
+        when(backupJobService.getJob(1L, "other")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/backup/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.percent").value(50));
+        mockMvc.perform(get("/api/v1/backup/jobs/other"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldDownloadCompletedJobResult(@TempDir Path directory) throws Exception {
+        User user = new User();
+        user.setId(1L);
+        when(userService.getUserByUsername("janek")).thenReturn(user);
+        Path file = Files.writeString(directory.resolve("job-1.csv.gz"), "gz");
+        when(backupJobService.getResultFile(1L, "job-1")).thenReturn(Optional.of(file));
+
+        mockMvc.perform(get("/api/v1/backup/jobs/job-1/download"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.csv.gz\""))
+                .andExpect(content().string("gz"));
+    }
 
-        verify(backupService).importUserData(eq(1L), anyString());
+    private static BackupJobDTO job(String id, BackupJobStatus status) {
+        return new BackupJobDTO(id, BackupJobType.EXPORT_CSV, status, 5, 10, 50, LocalDateTime.now(), null, null, null);
     }
-}
\ No newline at end of file
+}
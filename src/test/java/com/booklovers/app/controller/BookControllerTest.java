@@ -1,8 +1,12 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.dto.BookExplorePageDTO;
 import com.booklovers.app.dto.BookStatsDTO;
+import com.booklovers.app.dto.BookSuggestionDTO;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.service.BookSearchService;
 import com.booklovers.app.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -25,12 +29,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class BookControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
 
     @MockBean private BookService bookService;
+    @MockBean private BookSearchService bookSearchService;
 
     @Test
     @WithMockUser
@@ -51,21 +57,34 @@ class BookControllerTest {
     void shouldExploreBooks_WithQuery() throws Exception {
         BookExploreDTO dto1 = new BookExploreDTO();
         dto1.setTitle("Test Book");
-        when(bookService.exploreBooks("test")).thenReturn(List.of(dto1));
+        when(bookService.exploreBooks("test", null, 20)).thenReturn(new BookExplorePageDTO(List.of(dto1), "MjA"));
 
         mockMvc.perform(get("/api/v1/books/explore").param("query", "test"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].title").value("Test Book"));
+                .andExpect(jsonPath("$.books[0].title").value("Test Book"))
+                .andExpect(jsonPath("$.nextCursor").value("MjA"));
     }
 
     @Test
     @WithMockUser
     void shouldExploreBooks_WithoutQuery() throws Exception {
         BookExploreDTO dto = new BookExploreDTO();
-        when(bookService.exploreBooks(null)).thenReturn(List.of(dto));
+        when(bookService.exploreBooks(null, "MjA", 5)).thenReturn(new BookExplorePageDTO(List.of(dto), null));
 
-        mockMvc.perform(get("/api/v1/books/explore"))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/books/explore").param("cursor", "MjA").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(1));
+    }
+
+    @Test
+    void shouldSuggestBooks_WithoutLogin() throws Exception {
+        when(bookSearchService.suggest("wied", 5))
+                .thenReturn(List.of(new BookSuggestionDTO(3L, "Wiedźmin", "Andrzej Sapkowski", 12)));
+
+        mockMvc.perform(get("/api/v1/books/suggest").param("query", "wied").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Wiedźmin"))
+                .andExpect(jsonPath("$[0].reviewCount").value(12));
     }
 
     @Test
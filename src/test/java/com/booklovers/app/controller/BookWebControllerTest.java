@@ -1,7 +1,10 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.dto.BookExplorePageDTO;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
 import com.booklovers.app.service.BookService;
 import com.booklovers.app.service.ShelfService;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -28,6 +32,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class BookWebControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -38,13 +43,14 @@ class BookWebControllerTest {
     @Test
     void shouldShowBookCatalog() throws Exception {
         BookExploreDTO dto = new BookExploreDTO(1L, "Diuna", "Herbert", "123", 4.5, 10);
-        when(bookService.exploreBooks(anyString())).thenReturn(List.of(dto));
+        when(bookService.exploreBooks(anyString(), any(), anyInt())).thenReturn(new BookExplorePageDTO(List.of(dto), "MQ"));
 
         mockMvc.perform(get("/books").param("query", "Diuna"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("books/list"))
                 .andExpect(model().attributeExists("books"))
-                .andExpect(model().attribute("query", "Diuna"));
+                .andExpect(model().attribute("query", "Diuna"))
+                .andExpect(model().attribute("nextCursor", "MQ"));
     }
 
     @Test
@@ -56,6 +62,7 @@ class BookWebControllerTest {
 
         when(bookService.getBookById(1L)).thenReturn(book);
         when(bookService.getReviewsForBook(1L)).thenReturn(Collections.emptyList());
+        when(bookService.getRatingSummary(1L)).thenReturn(new BookRatingSummary(1L));
         when(shelfService.getAllShelvesForUser("janek")).thenReturn(new ArrayList<>());
 
         mockMvc.perform(get("/books/1"))
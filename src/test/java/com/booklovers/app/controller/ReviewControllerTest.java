@@ -1,6 +1,7 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.ReviewRequest;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.service.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -23,6 +24,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class ReviewControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -1,12 +1,22 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.dto.BulkShelfItemDTO;
+import com.booklovers.app.dto.BulkShelfResultDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.dto.ShelfActivityDTO;
+import com.booklovers.app.dto.ShelfActivityPageDTO;
+import com.booklovers.app.metrics.StatementBudget;
+import com.booklovers.app.model.ActivityType;
+import com.booklovers.app.model.BulkShelfStatus;
 import com.booklovers.app.model.Shelf;
+import com.booklovers.app.service.ShelfActivityService;
 import com.booklovers.app.service.ShelfService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,15 +24,19 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class ShelfControllerTest {
 
     @Autowired
@@ -31,6 +45,9 @@ class ShelfControllerTest {
     @MockBean
     private ShelfService shelfService;
 
+    @MockBean
+    private ShelfActivityService shelfActivityService;
+
     @Test
     @WithMockUser(username = "janek")
     void shouldReturnMyShelves() throws Exception {
@@ -52,11 +69,99 @@ class ShelfControllerTest {
         verify(shelfService).addBookToShelfByCode("janek", "READ", 1L);
     }
 
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldBulkAddBooksToShelf() throws Exception {
+        when(shelfService.addBooksToShelf("janek", "READ", List.of(1L, 2L))).thenReturn(new BulkShelfResultDTO("READ", 1,
+                List.of(new BulkShelfItemDTO(1L, BulkShelfStatus.ADDED, null),
+                        new BulkShelfItemDTO(2L, BulkShelfStatus.UNKNOWN_BOOK, null))));
+
+        mockMvc.perform(post("/api/v1/shelves/code/READ/books/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed").value(1))
+                .andExpect(jsonPath("$.items[1].status").value("UNKNOWN_BOOK"));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldRejectEmptyBulkRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/shelves/code/READ/books/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.bookIds").value("Lista książek nie może być pusta"));
+
+        verifyNoInteractions(shelfService);
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldBulkMoveBooksBetweenShelves() throws Exception {
+        when(shelfService.moveBooksBetweenShelves("janek", "READING", "READ", List.of(3L)))
+                .thenReturn(new BulkShelfResultDTO("READ", 1, List.of(new BulkShelfItemDTO(3L, BulkShelfStatus.MOVED, "READING"))));
+
+        mockMvc.perform(post("/api/v1/shelves/code/READ/books/bulk-move")
+                        .param("from", "READING")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].previousShelfCode").value("READING"));
+    }
+
+    @Test
+    @WithMockUser(username = "janek")
+    void shouldBulkRemoveBooksFromShelf() throws Exception {
+        when(shelfService.removeBooksFromShelf("janek", "READ", List.of(4L)))
+                .thenReturn(new BulkShelfResultDTO("READ", 1, List.of(new BulkShelfItemDTO(4L, BulkShelfStatus.REMOVED, "READ"))));
+
+        mockMvc.perform(post("/api/v1/shelves/code/READ/books/bulk-remove")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookIds\":[4]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value("REMOVED"));
+    }
+
+    @Test
+    void shouldRequireLoginForBulkOperations() throws Exception {
+        mockMvc.perform(post("/api/v1/shelves/code/READ/books/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookIds\":[1]}"));
+
+        verify(shelfService, org.mockito.Mockito.never()).addBooksToShelf(any(), any(), any());
+    }
+
     @Test
     void shouldAllowPublicAccessToExplore() throws Exception {
-        when(shelfService.getExplorePage()).thenReturn(Collections.emptyList());
+        when(shelfService.getExplorePage(null, 20)).thenReturn(new ExplorePageDTO(Collections.emptyList(), null));
 
         mockMvc.perform(get("/api/v1/shelves/explore"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPassPaginationToExplore() throws Exception {
+        when(shelfService.getExplorePage("MTA", 10)).thenReturn(new ExplorePageDTO(Collections.emptyList(), "MjA"));
+
+        mockMvc.perform(get("/api/v1/shelves/explore").param("cursor", "MTA").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("MjA"));
+
+        verify(shelfService).getExplorePage("MTA", 10);
+    }
+
+    @Test
+    void shouldAllowPublicAccessToActivityFeed() throws Exception {
+        ShelfActivityDTO activity = new ShelfActivityDTO();
+        activity.setType(ActivityType.ADDED);
+        activity.setUsername("janek");
+        when(shelfActivityService.getRecentActivity("MTA", 5))
+                .thenReturn(new ShelfActivityPageDTO(List.of(activity), "Nw"));
+
+        mockMvc.perform(get("/api/v1/shelves/activity").param("cursor", "MTA").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activities[0].type").value("ADDED"))
+                .andExpect(jsonPath("$.nextCursor").value("Nw"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.booklovers.app.controller;
 
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.service.StatisticsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +18,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class StatisticsControllerTest {
 
     @Autowired
@@ -1,6 +1,8 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.UserProfileDTO;
+import com.booklovers.app.metrics.StatementBudget;
+import com.booklovers.app.security.TokenService;
 import com.booklovers.app.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -8,7 +10,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,10 +27,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class UserControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
+    @Autowired private TokenService tokenService;
 
     @MockBean private UserService userService;
 
@@ -77,4 +83,25 @@ class UserControllerTest {
 
         verify(userService).deleteAccount("testuser");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAuthenticateWithBearerToken() throws Exception {
+        UserProfileDTO dto = new UserProfileDTO();
+        dto.setUsername("tokenuser");
+        when(userService.getUserProfile("tokenuser")).thenReturn(dto);
+
+        String token = tokenService.issue(User.withUsername("tokenuser").password("x").roles("USER").build())
+                .getAccessToken();
+
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("tokenuser"));
+    }
+
+    @Test
+    void shouldRejectInvalidBearerToken() throws Exception {
+        mockMvc.perform(get("/api/v1/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer nieprawidlowy.token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+}
@@ -1,6 +1,7 @@
 package com.booklovers.app.controller;
 
 import com.booklovers.app.dto.UserProfileDTO;
+import com.booklovers.app.metrics.StatementBudget;
 import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.service.BackupService;
@@ -17,14 +18,21 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -33,6 +41,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@StatementBudget(0)
 class UserWebControllerTest {
 
     @Autowired private MockMvc mockMvc;
@@ -101,27 +110,43 @@ class UserWebControllerTest {
     @WithMockUser(username = "janek")
     void shouldExportProfileAsJson() throws Exception {
         String mockJson = "{\"data\":\"test\"}";
-        when(backupService.exportUserData(1L)).thenReturn(mockJson);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockJson.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(backupService).writeUserData(eq(1L), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/profile/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/profile/export"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.json\""));
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"user_backup.json\""))
+                .andExpect(content().string(mockJson));
 
-        verify(backupService).exportUserData(1L);
+        verify(backupService).writeUserData(eq(1L), any(OutputStream.class));
     }
 
     @Test
     @WithMockUser(username = "janek")
     void shouldExportProfileAsCsv() throws Exception {
         String mockCsv = "id,name\n1,janek";
-        when(backupService.exportUserDataToCSV(1L)).thenReturn(mockCsv);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(mockCsv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(backupService).writeUserDataAsCsv(eq(1L), any(OutputStream.class), eq(false));
+
+        MvcResult result = mockMvc.perform(get("/profile/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/profile/export").param("format", "csv"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.TEXT_PLAIN));
+                .andExpect(content().contentType(MediaType.TEXT_PLAIN))
+                .andExpect(content().string(mockCsv));
 
-        verify(backupService).exportUserDataToCSV(1L);
+        verify(backupService).writeUserDataAsCsv(eq(1L), any(OutputStream.class), eq(false));
     }
 
     @Test
@@ -136,7 +161,7 @@ class UserWebControllerTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/profile?imported=true"));
 
-        verify(backupService).importUserData(eq(1L), anyString());
+        verify(backupService).importUserData(eq(1L), any(InputStream.class));
     }
 
     @Test
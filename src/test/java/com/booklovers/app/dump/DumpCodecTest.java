@@ -0,0 +1,132 @@
+package com.booklovers.app.dump;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.booklovers.app.dump.ColumnType.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpCodecTest {
+
+    private static final DumpTable TABLE = new DumpTable("sample",
+            new DumpColumn("id", LONG), new DumpColumn("count", INT), new DumpColumn("text", STRING),
+            new DumpColumn("flag", BOOLEAN), new DumpColumn("at", TIMESTAMP));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRoundTripAllTypesAndNulls() throws IOException {
+        Path file = tempDir.resolve("sample.bldump");
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        Object[] full = {Long.MAX_VALUE, -42, "Zażółć gęślą jaźń", true, at};
+        Object[] sparse = {-1L, null, null, false, null};
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DumpWriter writer = new DumpWriter(channel);
+            writer.beginTable(TABLE);
+            writer.writeRow(full);
+            writer.writeRow(sparse);
+            assertEquals(2, writer.endTable());
+            writer.finish();
+            assertEquals(Files.size(file), writer.getBytesWritten());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DumpReader reader = new DumpReader(channel);
+            DumpTable table = reader.nextTable();
+            assertEquals(TABLE, table);
+            assertArrayEquals(full, reader.nextRow());
+            assertArrayEquals(sparse, reader.nextRow());
+            assertNull(reader.nextRow());
+            assertNull(reader.nextTable());
+        }
+    }
+
+    @Test
+    void shouldHandleRowsAndStringsLargerThanBuffer() throws IOException {
+        Path file = tempDir.resolve("large.bldump");
+        DumpTable table = new DumpTable("texts", new DumpColumn("id", LONG), new DumpColumn("text", STRING));
+        String huge = "x".repeat(200_000);
+        int rows = 50_000;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DumpWriter writer = new DumpWriter(channel);
+            writer.beginTable(table);
+            writer.writeRow(new Object[]{0L, huge});
+            for (long id = 1; id < rows; id++) {
+                writer.writeRow(new Object[]{id, "Książka " + id});
+            }
+            writer.endTable();
+            writer.finish();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DumpReader reader = new DumpReader(channel);
+            reader.nextTable();
+            assertEquals(huge, reader.nextRow()[1]);
+            long count = 1;
+            Object[] row;
+            while ((row = reader.nextRow()) != null) {
+                assertEquals(count, row[0]);
+                assertEquals("Książka " + count, row[1]);
+                count++;
+            }
+            assertEquals(rows, count);
+        }
+    }
+
+    @Test
+    void shouldRejectFileWithoutHeader() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("backup.json"), "{\"shelves\":[]}");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            IOException e = assertThrows(IOException.class, () -> new DumpReader(channel));
+            assertEquals("Plik nie jest zrzutem bazy danych", e.getMessage());
+        }
+    }
+
+    @Test
+    void shouldFailOnTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("truncated.bldump");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DumpWriter writer = new DumpWriter(channel);
+            writer.beginTable(TABLE);
+            writer.writeRow(new Object[]{1L, 1, "a", true, LocalDateTime.of(2024, 1, 1, 8, 0, 0, 123_456_789)});
+            writer.endTable();
+            writer.finish();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            DumpReader reader = new DumpReader(channel);
+            reader.nextTable();
+            assertThrows(EOFException.class, () -> {
+                while (reader.nextRow() != null) {
+                    // czytamy do końca
+                }
+            });
+        }
+    }
+
+    @Test
+    void shouldRejectRowWithWrongColumnCount() throws IOException {
+        Path file = tempDir.resolve("invalid.bldump");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            DumpWriter writer = new DumpWriter(channel);
+            writer.beginTable(TABLE);
+            assertThrows(IllegalArgumentException.class, () -> writer.writeRow(List.of(1L).toArray()));
+        }
+    }
+}
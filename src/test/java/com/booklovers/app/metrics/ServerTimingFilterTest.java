@@ -0,0 +1,60 @@
+package com.booklovers.app.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingFilterTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @Test
+    void shouldBreakDownApiResponse() throws Exception {
+        mockMvc.perform(get("/api/v1/shelves/explore"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", matchesPattern(
+                        "auth;dur=\\d+\\.\\d, db;dur=\\d+\\.\\d;desc=\"1 SQL\", service;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d")));
+    }
+
+    @Test
+    void shouldIncludeRenderTimeForViews() throws Exception {
+        mockMvc.perform(get("/login"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", containsString(", render;dur=")));
+    }
+
+    @Test
+    void shouldAddHeaderWhenSecurityRejectsRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/users/me"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string("Server-Timing", not(containsString("render"))))
+                .andExpect(header().string("Server-Timing", containsString("auth;dur=")));
+    }
+
+    @Test
+    void shouldNotExposeTimingsWhenDisabled() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ServerTimingFilter(false).doFilter(
+                new MockHttpServletRequest("GET", "/api/v1/shelves/explore"), response, new MockFilterChain());
+
+        assertNull(response.getHeader("Server-Timing"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.booklovers.app.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.sql.statement-budget=0")
+@ExtendWith(OutputCaptureExtension.class)
+class SqlStatementBudgetFilterTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldCountStatementsFromJdbcTemplate() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book", Long.class);
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM app_user", Long.class);
+
+            assertEquals(3, scope.getStatements());
+            assertEquals(2, scope.getMostRepeated().orElseThrow().getValue());
+            assertEquals("SELECT COUNT(*) FROM book", scope.getMostRepeated().orElseThrow().getKey());
+        }
+    }
+
+    @Test
+    void shouldNotCountStatementsOutsideScope() {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        scope.close();
+
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM book", Long.class);
+
+        assertEquals(0, scope.getStatements());
+    }
+
+    @Test
+    @StatementBudget(1)
+    void shouldRecordRequestStatementsAndWarnWhenBudgetExceeded(CapturedOutput output) throws Exception {
+        mockMvc.perform(get("/api/v1/shelves/explore"))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("app.request.sql.statements")
+                .tag("uri", "/api/v1/shelves/explore")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(1.0, statements.totalAmount());
+        assertNotNull(meterRegistry.get("app.request.sql.time").tag("uri", "/api/v1/shelves/explore").timer());
+        assertTrue(output.getOut().contains("Żądanie GET /api/v1/shelves/explore wykonało 1 zapytań SQL (limit 0"));
+    }
+}
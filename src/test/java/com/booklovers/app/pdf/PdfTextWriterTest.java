@@ -0,0 +1,115 @@
+package com.booklovers.app.pdf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfTextWriterTest {
+
+    @Test
+    void shouldWriteValidXrefAndStreamLengths() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfTextWriter pdf = new PdfTextWriter(out, "Biblioteka");
+        pdf.heading("Przeczytane (READ)");
+        for (int i = 0; i < PdfTextWriter.LINES_PER_PAGE * 2; i++) {
+            pdf.line("Książka " + i);
+        }
+        pdf.finish();
+
+        String document = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(document.startsWith("%PDF-1.4\n"));
+        assertTrue(document.endsWith("%%EOF\n"));
+        assertEquals(3, pdf.getPageCount());
+        assertTrue(document.contains("/Count 3"));
+        assertEquals(out.size(), pdf.getBytesWritten());
+
+        // Każdy wpis xref wskazuje początek swojego obiektu
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(document);
+        assertTrue(startxref.find());
+        int xref = Integer.parseInt(startxref.group(1));
+        assertTrue(document.startsWith("xref\n", xref));
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(document);
+        int object = 1;
+        int position = xref;
+        while (entries.find(position)) {
+            int offset = Integer.parseInt(entries.group(1));
+            assertTrue(document.startsWith(object + " 0 obj\n", offset), "obiekt " + object);
+            object++;
+            position = entries.end();
+        }
+        assertEquals(7 + 2 * 3, object);
+
+        // /Length odpowiada faktycznej długości treści strony
+        Matcher streams = Pattern.compile("<< /Length (\\d+) >>\nstream\n").matcher(document);
+        int count = 0;
+        while (streams.find()) {
+            int length = Integer.parseInt(streams.group(1));
+            assertTrue(document.startsWith("\nendstream", streams.end() + length));
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    void shouldEncodePolishLettersAndEscapeParentheses() {
+        byte[] literal = PdfTextWriter.literal("Łódź (a\\b) 日");
+
+        assertEquals('(', literal[0]);
+        assertEquals((byte) 0xF3, literal[2]);
+        assertEquals("\\(a\\\\b\\)", new String(literal, 6, 8, StandardCharsets.ISO_8859_1));
+        assertEquals('?', literal[literal.length - 2]);
+        assertNotEquals('?', literal[1]);
+        assertNotEquals('?', literal[4]);
+    }
+
+    @Test
+    void shouldWriteEmptyDocumentWithSinglePage() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfTextWriter pdf = new PdfTextWriter(out, "Pusty");
+        pdf.finish();
+
+        assertEquals(1, pdf.getPageCount());
+        assertTrue(out.toString(StandardCharsets.ISO_8859_1).contains("/Count 1"));
+    }
+
+    @Test
+    void shouldStreamLargeDocumentPageByPage() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        PdfTextWriter pdf = new PdfTextWriter(out, "Duża biblioteka");
+        int lines = 200_000;
+        long flushed = out.bytes;
+        for (int i = 0; i < lines; i++) {
+            pdf.line("• Tytuł książki numer " + i + " — Autor " + i);
+            // Zapełniona strona trafia do wyjścia przy pierwszym wierszu kolejnej
+            if (i > 0 && i % PdfTextWriter.LINES_PER_PAGE == 0) {
+                assertTrue(out.bytes > flushed);
+                flushed = out.bytes;
+            }
+        }
+        pdf.finish();
+
+        assertEquals((lines + PdfTextWriter.LINES_PER_PAGE - 1) / PdfTextWriter.LINES_PER_PAGE, pdf.getPageCount());
+        assertEquals(out.bytes, pdf.getBytesWritten());
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
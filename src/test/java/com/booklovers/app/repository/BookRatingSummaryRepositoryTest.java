@@ -0,0 +1,95 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
+import com.booklovers.app.model.Review;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BookRatingSummaryRepositoryTest {
+
+    @Autowired
+    private BookRatingSummaryRepository summaryRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldApplyRatingDeltaAtomically() {
+        Book book = bookRepository.save(new Book(null, "Lalka", "Prus", "11111"));
+        summaryRepository.saveAndFlush(new BookRatingSummary(book.getId()));
+
+        assertEquals(1, summaryRepository.applyRating(book.getId(), 8, 1));
+        assertEquals(1, summaryRepository.applyRating(book.getId(), 8, 1));
+        assertEquals(1, summaryRepository.applyRating(book.getId(), 3, 1));
+        assertEquals(1, summaryRepository.applyRating(book.getId(), 3, -1));
+        entityManager.clear();
+
+        BookRatingSummary summary = summaryRepository.findById(book.getId()).orElseThrow();
+        assertEquals(2, summary.getReviewCount());
+        assertEquals(16, summary.getRatingSum());
+        assertEquals(2, summary.getBucket(8));
+        assertEquals(0, summary.getBucket(3));
+        assertEquals(8.0, summary.getAverageRating());
+    }
+
+    @Test
+    void shouldInsertEmptySummaryOnlyOnce() {
+        Book book = bookRepository.save(new Book(null, "Faraon", "Prus", "44444"));
+
+        assertEquals(1, summaryRepository.insertEmptyIfAbsent(book.getId()));
+        assertEquals(1, summaryRepository.applyRating(book.getId(), 6, 1));
+        assertEquals(0, summaryRepository.insertEmptyIfAbsent(book.getId()));
+        entityManager.clear();
+
+        BookRatingSummary summary = summaryRepository.findById(book.getId()).orElseThrow();
+        assertEquals(1, summary.getReviewCount());
+        assertEquals(1, summary.getBucket(6));
+    }
+
+    @Test
+    void shouldReturnZero_WhenSummaryDoesNotExist() {
+        assertEquals(0, summaryRepository.applyRating(12345L, 5, 1));
+    }
+
+    @Test
+    void shouldRebuildSummariesFromReviews() {
+        Book reviewed = bookRepository.save(new Book(null, "Quo Vadis", "Sienkiewicz", "22222"));
+        Book unreviewed = bookRepository.save(new Book(null, "Potop", "Sienkiewicz", "33333"));
+        for (int rating : new int[]{10, 9, 9}) {
+            Review review = new Review();
+            review.setBook(reviewed);
+            review.setRating(rating);
+            review.setCreatedAt(LocalDateTime.now());
+            reviewRepository.save(review);
+        }
+        entityManager.flush();
+
+        summaryRepository.deleteAllSummaries();
+        assertEquals(2, summaryRepository.rebuildFromReviews());
+        entityManager.clear();
+
+        BookRatingSummary summary = summaryRepository.findById(reviewed.getId()).orElseThrow();
+        assertEquals(3, summary.getReviewCount());
+        assertEquals(28, summary.getRatingSum());
+        assertEquals(2, summary.getBucket(9));
+        assertEquals(1, summary.getBucket(10));
+        assertEquals(0, summaryRepository.findById(unreviewed.getId()).orElseThrow().getReviewCount());
+    }
+}
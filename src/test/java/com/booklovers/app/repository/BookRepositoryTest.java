@@ -4,9 +4,11 @@ import com.booklovers.app.model.Book;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +19,9 @@ class BookRepositoryTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void shouldFindBooksByTitleOrAuthorOrIsbn() {
         bookRepository.deleteAll();
@@ -40,4 +45,31 @@ class BookRepositoryTest {
         List<Book> resultEmpty = bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase("Bzdura", "Bzdura", "Bzdura");
         assertTrue(resultEmpty.isEmpty(), "Lista powinna być pusta dla nieistniejącej frazy");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStoreNormalizedIsbn13OnSave() {
+        bookRepository.deleteAll();
+
+        bookRepository.save(new Book(null, "Solaris", "Lem", "83-08-01234-5"));
+        bookRepository.save(new Book(null, "Lalka", "Prus", "978-83-240-1234-5"));
+        bookRepository.flush();
+
+        assertEquals("Solaris", bookRepository.findByIsbn13("9788308012345").orElseThrow().getTitle());
+        assertEquals("Lalka", bookRepository.findByIsbn13("9788324012345").orElseThrow().getTitle());
+        assertTrue(bookRepository.findIsbn13BackfillCandidates().isEmpty());
+    }
+
+    @Test
+    void shouldSelectOnlyNormalizableLegacyIsbnsForBackfill() {
+        bookRepository.deleteAll();
+        bookRepository.save(new Book(null, "Solaris", "Lem", "83-08-01234-5"));
+        // Wiersze sprzed migracji nie przeszły przez @PrePersist, więc wstawiamy je z pominięciem encji.
+        jdbcTemplate.update("INSERT INTO book (title, author, isbn) VALUES ('Lalka', 'Prus', '978 83 240 1234 5')");
+        jdbcTemplate.update("INSERT INTO book (title, author, isbn) VALUES ('Bez numeru', 'Anonim', 'brak')");
+
+        List<Book> candidates = bookRepository.findIsbn13BackfillCandidates();
+
+        assertEquals(List.of("Lalka"), candidates.stream().map(Book::getTitle).toList());
+        assertEquals(Set.of("9788308012345"), bookRepository.findAssignedIsbn13());
+    }
+}
@@ -0,0 +1,174 @@
+package com.booklovers.app.repository;
+
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.Shelf;
+import com.booklovers.app.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ShelfMembershipRepository.class)
+class ShelfMembershipRepositoryTest {
+
+    @Autowired
+    private ShelfMembershipRepository shelfMembershipRepository;
+
+    @Autowired
+    private ShelfRepository shelfRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void shouldBatchInsertMembershipRows() {
+        Book first = bookRepository.save(new Book(null, "Lalka", "Prus", "11111"));
+        Book second = bookRepository.save(new Book(null, "Faraon", "Prus", "22222"));
+
+        User user = new User();
+        user.setUsername("importer");
+        user.setPassword("pass");
+        user.setEmail("importer@example.com");
+        userRepository.save(user);
+
+        Shelf shelf = new Shelf();
+        shelf.setName("Przeczytane");
+        shelf.setShelfCode("READ");
+        shelf.setUser(user);
+        shelf.setBooks(new HashSet<>());
+        shelfRepository.saveAndFlush(shelf);
+
+        int inserted = shelfMembershipRepository.insertAll(shelf.getId(), List.of(first.getId(), second.getId()));
+
+        assertEquals(2, inserted);
+        assertEquals(Set.of(first.getId(), second.getId()),
+                shelfMembershipRepository.findBookIds(shelf.getId(), List.of(first.getId(), second.getId(), -1L)));
+        assertEquals(Set.of(), shelfMembershipRepository.findBookIds(shelf.getId(), List.of()));
+        assertEquals(0, shelfMembershipRepository.insertAll(shelf.getId(), List.of()));
+    }
+
+    @Test
+    void shouldInsertAndDeleteSingleMembership() {
+        Book book = bookRepository.save(new Book(null, "Quo vadis", "Sienkiewicz", "44444"));
+        Book other = bookRepository.save(new Book(null, "Potop", "Sienkiewicz", "55555"));
+
+        User user = new User();
+        user.setUsername("mover");
+        user.setPassword("pass");
+        user.setEmail("mover@example.com");
+        userRepository.save(user);
+
+        Shelf reading = shelf(user, "READING");
+        Shelf read = shelf(user, "READ");
+
+        assertTrue(shelfMembershipRepository.insert(reading.getId(), book.getId()));
+        assertFalse(shelfMembershipRepository.insert(reading.getId(), book.getId()));
+        assertTrue(shelfMembershipRepository.insert(read.getId(), book.getId()));
+        shelfMembershipRepository.insert(read.getId(), other.getId());
+
+        assertTrue(shelfMembershipRepository.contains(reading.getId(), book.getId()));
+        assertFalse(shelfMembershipRepository.contains(reading.getId(), other.getId()));
+        assertEquals(List.of("READING", "READ"),
+                shelfMembershipRepository.findShelfCodesContaining(user.getId(), book.getId()));
+
+        assertTrue(shelfMembershipRepository.delete(reading.getId(), book.getId()));
+        assertFalse(shelfMembershipRepository.delete(reading.getId(), book.getId()));
+        assertEquals(1, shelfMembershipRepository.deleteFromUserShelves(user.getId(), book.getId()));
+        assertEquals(1, shelfMembershipRepository.deleteByBookId(other.getId()));
+        assertTrue(shelfMembershipRepository.findShelfCodesContaining(user.getId(), book.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldDeleteFromOtherSystemShelvesOnly() {
+        Book book = bookRepository.save(new Book(null, "Ogniem i mieczem", "Sienkiewicz", "66666"));
+
+        User user = new User();
+        user.setUsername("system");
+        user.setPassword("pass");
+        user.setEmail("system@example.com");
+        userRepository.save(user);
+
+        Shelf reading = shelf(user, "READING");
+        Shelf read = shelf(user, "READ");
+        Shelf custom = shelf(user, "CUSTOM_ULUBIONE");
+        shelfMembershipRepository.insert(reading.getId(), book.getId());
+        shelfMembershipRepository.insert(read.getId(), book.getId());
+        shelfMembershipRepository.insert(custom.getId(), book.getId());
+
+        int deleted = shelfMembershipRepository.deleteFromOtherShelves(user.getId(), List.of(book.getId()), read.getId(),
+                Set.of("READ", "READING", "WANT_TO_READ"));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of("READ", "CUSTOM_ULUBIONE"),
+                shelfMembershipRepository.findShelfCodesContaining(user.getId(), book.getId()));
+    }
+
+    @Test
+    void shouldFindShelfCodesForManyBooksAndDeleteThemAtOnce() {
+        Book first = bookRepository.save(new Book(null, "Krzyżacy", "Sienkiewicz", "77777"));
+        Book second = bookRepository.save(new Book(null, "Pan Wołodyjowski", "Sienkiewicz", "88888"));
+        Book absent = bookRepository.save(new Book(null, "Janko Muzykant", "Sienkiewicz", "99999"));
+
+        User user = new User();
+        user.setUsername("bulk");
+        user.setPassword("pass");
+        user.setEmail("bulk@example.com");
+        userRepository.save(user);
+
+        Shelf reading = shelf(user, "READING");
+        Shelf custom = shelf(user, "CUSTOM_ULUBIONE");
+        shelfMembershipRepository.insertAll(reading.getId(), List.of(first.getId(), second.getId()));
+        shelfMembershipRepository.insert(custom.getId(), first.getId());
+
+        Map<Long, List<String>> codes = shelfMembershipRepository.findShelfCodesByBook(user.getId(),
+                List.of(first.getId(), second.getId(), absent.getId()));
+
+        assertEquals(List.of("READING", "CUSTOM_ULUBIONE"), codes.get(first.getId()));
+        assertEquals(List.of("READING"), codes.get(second.getId()));
+        assertFalse(codes.containsKey(absent.getId()));
+        assertEquals(2, shelfMembershipRepository.deleteAll(reading.getId(), List.of(first.getId(), second.getId())));
+        assertEquals(0, shelfMembershipRepository.deleteAll(reading.getId(), List.of()));
+    }
+
+    @Test
+    void shouldClaimShelfVersionOnlyOnce() {
+        User user = new User();
+        user.setUsername("versioned");
+        user.setPassword("pass");
+        user.setEmail("versioned@example.com");
+        userRepository.saveAndFlush(user);
+
+        assertEquals(0, shelfMembershipRepository.findShelfVersion(user.getId()));
+        assertTrue(shelfMembershipRepository.claimShelfVersion(user.getId(), 0));
+        assertFalse(shelfMembershipRepository.claimShelfVersion(user.getId(), 0));
+        assertEquals(1, shelfMembershipRepository.findShelfVersion(user.getId()));
+    }
+
+    @Test
+    void shouldFindOnlyExistingBookIds() {
+        Book book = bookRepository.save(new Book(null, "Chłopi", "Reymont", "33333"));
+
+        assertEquals(List.of(book.getId()), bookRepository.findExistingIds(List.of(book.getId(), -1L)));
+    }
+
+    private Shelf shelf(User user, String code) {
+        Shelf shelf = new Shelf();
+        shelf.setName(code);
+        shelf.setShelfCode(code);
+        shelf.setUser(user);
+        return shelfRepository.saveAndFlush(shelf);
+    }
+}
@@ -1,13 +1,18 @@
 package com.booklovers.app.repository;
 
+import com.booklovers.app.model.Book;
 import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +26,9 @@ class ShelfRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BookRepository bookRepository;
+
     @Test
     void shouldFindShelfByCodeAndUser() {
         User user = new User();
@@ -54,4 +62,106 @@ class ShelfRepositoryTest {
 
         assertTrue(foundShelf.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldLoadExploreSummaryForRequestedUsersOnly() {
+        Book lalka = bookRepository.save(new Book(null, "Lalka", "Prus", "11111"));
+        Book faraon = bookRepository.save(new Book(null, "Faraon", "Prus", "11112"));
+
+        User reader = new User();
+        reader.setUsername("reader");
+        reader.setPassword("pass");
+        reader.setEmail("reader@example.com");
+        userRepository.save(reader);
+
+        User other = new User();
+        other.setUsername("other");
+        other.setPassword("pass");
+        other.setEmail("other@example.com");
+        userRepository.save(other);
+
+        Shelf shelf = new Shelf();
+        shelf.setName("Przeczytane");
+        shelf.setShelfCode("READ");
+        shelf.setUser(reader);
+        shelf.setBooks(new HashSet<>(List.of(lalka, faraon)));
+        shelfRepository.save(shelf);
+
+        List<ShelfRepository.ExploreShelfRow> shelves = shelfRepository.findExploreShelfRows(List.of(reader.getId()));
+
+        assertEquals(1, shelves.size());
+        assertEquals("reader", shelves.get(0).getUsername());
+        assertEquals("READ", shelves.get(0).getShelfCode());
+        assertEquals(2L, shelves.get(0).getBookCount());
+
+        List<ShelfRepository.ExploreBookRow> books = shelfRepository.findExploreTopBooks(List.of(reader.getId()), 1);
+
+        assertEquals(1, books.size());
+        assertEquals(shelf.getId(), books.get(0).getShelfId());
+        assertEquals("Faraon", books.get(0).getTitle());
+
+        assertEquals(List.of(reader.getId()), userRepository.findIdsAfter(0L, PageRequest.of(0, 1)));
+        assertEquals(List.of(other.getId()), userRepository.findIdsAfter(reader.getId(), PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void shouldPageShelfBookIdsByKeyset() {
+        Book first = bookRepository.save(new Book(null, "Lalka", "Prus", "22222"));
+        Book second = bookRepository.save(new Book(null, "Faraon", "Prus", "33333"));
+        Book third = bookRepository.save(new Book(null, "Emancypantki", "Prus", "44444"));
+
+        User reader = new User();
+        reader.setUsername("pager");
+        reader.setPassword("pass");
+        reader.setEmail("pager@example.com");
+        userRepository.save(reader);
+
+        Shelf shelf = new Shelf();
+        shelf.setName("Przeczytane");
+        shelf.setShelfCode("READ");
+        shelf.setUser(reader);
+        shelf.setBooks(new HashSet<>(List.of(third, first, second)));
+        shelfRepository.save(shelf);
+
+        List<Long> firstPage = shelfRepository.findBookIdsAfter(shelf.getId(), 0L, PageRequest.of(0, 2));
+        List<Long> secondPage = shelfRepository.findBookIdsAfter(shelf.getId(), firstPage.get(1), PageRequest.of(0, 2));
+
+        assertEquals(List.of(first.getId(), second.getId()), firstPage);
+        assertEquals(List.of(third.getId()), secondPage);
+    }
+
+    @Test
+    void shouldStreamShelfBookRowsOrderedByShelf() {
+        Book book = bookRepository.save(new Book(null, "Chłopi", "Reymont", "55555"));
+
+        User reader = new User();
+        reader.setUsername("streamer");
+        reader.setPassword("pass");
+        reader.setEmail("streamer@example.com");
+        userRepository.save(reader);
+
+        Shelf read = new Shelf();
+        read.setName("Przeczytane");
+        read.setShelfCode("READ");
+        read.setUser(reader);
+        read.setBooks(new HashSet<>(List.of(book)));
+        shelfRepository.save(read);
+
+        Shelf empty = new Shelf();
+        empty.setName("Pusta");
+        empty.setShelfCode("EMPTY");
+        empty.setUser(reader);
+        shelfRepository.save(empty);
+
+        List<ShelfRepository.ShelfBookRow> rows;
+        try (Stream<ShelfRepository.ShelfBookRow> stream = shelfRepository.streamShelfBookRows(reader.getId())) {
+            rows = stream.toList();
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals("READ", rows.get(0).getShelfCode());
+        assertEquals(book.getId(), rows.get(0).getBookId());
+        assertEquals("EMPTY", rows.get(1).getShelfCode());
+        assertNull(rows.get(1).getBookId());
+    }
+}
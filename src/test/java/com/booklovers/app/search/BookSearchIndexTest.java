@@ -0,0 +1,78 @@
+package com.booklovers.app.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.put(1L, "Wojna i pokój", "Lew Tołstoj", "978-83-240-1234-5");
+        index.put(2L, "Pan Tadeusz", "Adam Mickiewicz", "978-83-07-03335-0");
+        index.put(3L, "Wiedźmin", "Andrzej Sapkowski", "978-83-7578-000-1");
+    }
+
+    @Test
+    void shouldFindTitleIgnoringDiacritics() {
+        assertEquals(List.of(1L), index.search("pokoj"));
+        assertEquals(List.of(1L), index.search("POKÓJ"));
+        assertEquals(List.of(1L), index.search("tolstoj"));
+        assertEquals(List.of(3L), index.search("wiedzmin"));
+    }
+
+    @Test
+    void shouldMatchPrefixesAndRequireAllTokens() {
+        assertEquals(List.of(1L), index.search("woj pok"));
+        assertEquals(List.of(), index.search("wojna tadeusz"));
+    }
+
+    @Test
+    void shouldFindByIsbnWithAndWithoutDashes() {
+        assertEquals(List.of(2L), index.search("978-83-07-03335-0"));
+        assertEquals(List.of(2L), index.search("9788307033350"));
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveAuthorMatches() {
+        index.put(4L, "Adam i Ewa", "Jan Kowalski", "111");
+
+        assertEquals(List.of(4L, 2L), index.search("adam"));
+    }
+
+    @Test
+    void shouldRankExactTokenAbovePrefix() {
+        index.put(4L, "Panowie", "Ktoś", "222");
+
+        assertEquals(List.of(2L, 4L), index.search("pan"));
+    }
+
+    @Test
+    void shouldRemoveBook() {
+        index.remove(1L);
+
+        assertTrue(index.search("wojna").isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void shouldUpdateTitleKeepingOtherFields() {
+        index.updateTitle(2L, "Dziady");
+
+        assertTrue(index.search("tadeusz").isEmpty());
+        assertEquals(List.of(2L), index.search("dziady"));
+        assertEquals(List.of(2L), index.search("mickiewicz"));
+    }
+
+    @Test
+    void shouldReturnEmptyForBlankQuery() {
+        assertTrue(index.search("  ").isEmpty());
+        assertTrue(index.search("--").isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.booklovers.app.search;
+
+import com.booklovers.app.dto.BookSuggestionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSuggestionIndexTest {
+
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSuggestionIndex();
+        index.put(1L, "Wojna i pokój", "Lew Tołstoj");
+        index.put(2L, "Pan Tadeusz", "Adam Mickiewicz");
+        index.put(3L, "Pan Wołodyjowski", "Henryk Sienkiewicz");
+        index.put(4L, "Panowie", "Ktoś Inny");
+    }
+
+    @Test
+    void shouldSuggestByTitleAuthorAndInnerWordPrefix() {
+        assertEquals(List.of(1L), ids(index.suggest("Woj", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("tolst", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("pokó", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("pan tad", 10)));
+    }
+
+    @Test
+    void shouldRankByReviewCountAndLimitResults() {
+        index.setReviewCount(2L, 5);
+        index.setReviewCount(3L, 9);
+        index.adjustReviewCount(4L, 1);
+
+        List<BookSuggestionDTO> result = index.suggest("pan", 2);
+
+        assertEquals(List.of(3L, 2L), ids(result));
+        assertEquals(9, result.get(0).getReviewCount());
+    }
+
+    @Test
+    void shouldBreakTiesAlphabetically() {
+        assertEquals(List.of(2L, 3L, 4L), ids(index.suggest("pan", 10)));
+    }
+
+    @Test
+    void shouldFollowTitleUpdatesAndRemovals() {
+        index.updateTitle(4L, "Lalka");
+        index.remove(3L);
+
+        assertEquals(List.of(2L), ids(index.suggest("pan", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("lal", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void shouldRankWholeShortPrefixRangeBeforeLimiting() {
+        BookSuggestionIndex catalog = new BookSuggestionIndex();
+        for (long id = 1; id <= 2_000; id++) {
+            catalog.put(id, String.format("A%04d", id), "Autor");
+        }
+        catalog.setReviewCount(1_999L, 50);
+
+        assertEquals(List.of(1_999L, 1L), ids(catalog.suggest("a", 2)));
+    }
+
+    @Test
+    void shouldRefreshCachedShortPrefixRankingAfterChanges() {
+        assertEquals(List.of(2L, 3L, 4L), ids(index.suggest("p", 3)));
+
+        index.adjustReviewCount(4L, 3);
+        assertEquals(List.of(4L, 2L, 3L), ids(index.suggest("p", 3)));
+
+        index.updateTitle(4L, "Lalka");
+        index.remove(2L);
+        assertEquals(List.of(3L), ids(index.suggest("pa", 3)));
+        assertEquals(List.of(4L, 1L), ids(index.suggest("l", 3)));
+    }
+
+    @Test
+    void shouldReturnEmptyForBlankPrefix() {
+        assertTrue(index.suggest("   ", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<BookSuggestionDTO> suggestions) {
+        return suggestions.stream().map(BookSuggestionDTO::getId).toList();
+    }
+}
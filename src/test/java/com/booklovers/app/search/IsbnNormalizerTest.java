@@ -0,0 +1,35 @@
+package com.booklovers.app.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnNormalizerTest {
+
+    @Test
+    void shouldStripSeparatorsFromIsbn13() {
+        assertEquals("9788375780635", IsbnNormalizer.toIsbn13("978-83-7578-063-5"));
+        assertEquals("9788375780635", IsbnNormalizer.toIsbn13(" 978 83 7578 063 5 "));
+    }
+
+    @Test
+    void shouldConvertIsbn10WithNewCheckDigit() {
+        assertEquals("9780306406157", IsbnNormalizer.toIsbn13("0-306-40615-2"));
+        assertEquals("9788308012345", IsbnNormalizer.toIsbn13("830801234x"));
+    }
+
+    @Test
+    void shouldRejectValuesThatAreNotIsbn() {
+        assertNull(IsbnNormalizer.toIsbn13(null));
+        assertNull(IsbnNormalizer.toIsbn13("12345"));
+        assertNull(IsbnNormalizer.toIsbn13("1234567890123"));
+        assertNull(IsbnNormalizer.toIsbn13("Wiedźmin"));
+    }
+
+    @Test
+    void shouldDetectIsbnShapedQueries() {
+        assertTrue(IsbnNormalizer.looksLikeIsbn("978-83-7578-063-5"));
+        assertFalse(IsbnNormalizer.looksLikeIsbn("978"));
+        assertFalse(IsbnNormalizer.looksLikeIsbn("pan tadeusz"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.booklovers.app.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private CachingPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new CachingPasswordEncoder(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void shouldVerifyMatchingPasswordOnlyOnce() {
+        when(delegate.matches("tajne", "$2a$hash")).thenReturn(true);
+
+        assertTrue(encoder.matches("tajne", "$2a$hash"));
+        assertTrue(encoder.matches("tajne", "$2a$hash"));
+
+        verify(delegate, times(1)).matches("tajne", "$2a$hash");
+        assertEquals(1, encoder.getCacheStats().getHitCount());
+    }
+
+    @Test
+    void shouldNotCacheFailedVerification() {
+        when(delegate.matches("zle", "$2a$hash")).thenReturn(false);
+
+        assertFalse(encoder.matches("zle", "$2a$hash"));
+        assertFalse(encoder.matches("zle", "$2a$hash"));
+
+        verify(delegate, times(2)).matches("zle", "$2a$hash");
+    }
+
+    @Test
+    void shouldVerifyAgain_WhenStoredHashChanges() {
+        when(delegate.matches("tajne", "$2a$old")).thenReturn(true);
+        when(delegate.matches("tajne", "$2a$new")).thenReturn(false);
+
+        assertTrue(encoder.matches("tajne", "$2a$old"));
+        assertFalse(encoder.matches("tajne", "$2a$new"));
+    }
+
+    @Test
+    void shouldDelegateEncoding() {
+        when(delegate.encode("tajne")).thenReturn("$2a$hash");
+
+        assertEquals("$2a$hash", encoder.encode("tajne"));
+    }
+}
@@ -8,13 +8,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CustomUserDetailsServiceTest {
@@ -103,4 +104,49 @@ class CustomUserDetailsServiceTest {
             customUserDetailsService.loadUserByUsername("nonexistent");
         });
     }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        customUserDetailsService.loadUserByUsername("testuser");
+        customUserDetailsService.loadUserByUsername("testuser");
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(1, customUserDetailsService.getCacheStats().getHitCount());
+    }
+
+    @Test
+    void shouldReturnFreshDetails_AfterCredentialsWereErased() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("testuser");
+        ((CredentialsContainer) first).eraseCredentials();
+
+        UserDetails second = customUserDetailsService.loadUserByUsername("testuser");
+
+        assertEquals("encoded_password", second.getPassword());
+    }
+
+    @Test
+    void shouldReloadUser_AfterEviction() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        customUserDetailsService.loadUserByUsername("testuser");
+
+        user.setLocked(true);
+        customUserDetailsService.evict("testuser");
+
+        assertFalse(customUserDetailsService.loadUserByUsername("testuser").isAccountNonLocked());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void shouldNotCacheMissingUsers() {
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> customUserDetailsService.loadUserByUsername("ghost"));
+
+        verify(userRepository, times(2)).findByUsername("ghost");
+    }
 }
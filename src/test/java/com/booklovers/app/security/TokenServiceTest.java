@@ -0,0 +1,98 @@
+package com.booklovers.app.security;
+
+import com.booklovers.app.dto.TokenResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private TokenService tokenService;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = tokenServiceAt(NOW);
+        user = User.withUsername("jan").password("hash").authorities("ROLE_USER", "ROLE_ADMIN").build();
+    }
+
+    @Test
+    void shouldIssueVerifiableAccessToken() {
+        TokenResponse tokens = tokenService.issue(user);
+
+        UserDetails verified = tokenService.verify(tokens.getAccessToken(), TokenService.ACCESS);
+
+        assertNotNull(verified);
+        assertEquals("jan", verified.getUsername());
+        assertEquals("", verified.getPassword());
+        assertEquals(2, verified.getAuthorities().size());
+        assertTrue(verified.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals));
+        assertEquals("Bearer", tokens.getTokenType());
+        assertEquals(900, tokens.getExpiresIn());
+    }
+
+    @Test
+    void shouldRejectTokenOfWrongType() {
+        TokenResponse tokens = tokenService.issue(user);
+
+        assertNull(tokenService.verify(tokens.getRefreshToken(), TokenService.ACCESS));
+        assertNull(tokenService.verify(tokens.getAccessToken(), TokenService.REFRESH));
+        assertNotNull(tokenService.verify(tokens.getRefreshToken(), TokenService.REFRESH));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = tokenService.issue(user).getAccessToken();
+
+        assertNotNull(tokenServiceAt(NOW.plus(Duration.ofMinutes(14))).verify(token, TokenService.ACCESS));
+        assertNull(tokenServiceAt(NOW.plus(Duration.ofMinutes(15))).verify(token, TokenService.ACCESS));
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        String token = tokenService.issue(user).getAccessToken();
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("a|admin|ROLE_ADMIN|9999999999".getBytes());
+
+        assertNull(tokenService.verify(forgedPayload + token.substring(token.indexOf('.')), TokenService.ACCESS));
+        assertNull(tokenService.verify(token + "x", TokenService.ACCESS));
+        assertNull(tokenService.verify("bez-kropki", TokenService.ACCESS));
+        assertNull(tokenService.verify("!!!.???", TokenService.ACCESS));
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithDifferentKey() {
+        String otherSecret = Base64.getEncoder().encodeToString(new byte[]{
+                1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+        TokenService other = new TokenService(otherSecret, Duration.ofMinutes(15), Duration.ofDays(7),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertNull(other.verify(tokenService.issue(user).getAccessToken(), TokenService.ACCESS));
+    }
+
+    @Test
+    void shouldRejectTooShortSecret() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThrows(IllegalStateException.class, () -> new TokenService(shortSecret,
+                Duration.ofMinutes(15), Duration.ofDays(7), Clock.systemUTC()));
+    }
+
+    private TokenService tokenServiceAt(Instant instant) {
+        return new TokenService(SECRET, Duration.ofMinutes(15), Duration.ofDays(7), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -1,8 +1,13 @@
 package com.booklovers.app.service;
 
+import com.booklovers.app.dto.CacheStatsDTO;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.Review;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.ReviewRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CachingPasswordEncoder;
+import com.booklovers.app.security.CustomUserDetailsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -25,6 +30,15 @@ class AdminServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private BookRatingService bookRatingService;
+    @Mock
+    private ShelfActivityService shelfActivityService;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+    @Mock
+    private CachingPasswordEncoder passwordEncoder;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -55,6 +69,7 @@ class AdminServiceTest {
         verify(userRepository).save(userCaptor.capture());
 
         assertTrue(userCaptor.getValue().isLocked());
+        verify(userDetailsService).evict(user.getUsername());
     }
 
     @Test
@@ -113,7 +128,9 @@ class AdminServiceTest {
 
         adminService.deleteUser(2L);
 
+        verify(shelfActivityService).forgetUser(2L);
         verify(userRepository).delete(user);
+        verify(userDetailsService).evict(user.getUsername());
     }
 
     @Test
@@ -169,22 +186,47 @@ class AdminServiceTest {
 
     @Test
     void shouldDeleteReview_WhenExists() {
-        when(reviewRepository.existsById(10L)).thenReturn(true);
+        Book book = new Book();
+        book.setId(3L);
+        Review review = new Review();
+        review.setId(10L);
+        review.setRating(7);
+        review.setBook(book);
+        when(reviewRepository.findById(10L)).thenReturn(Optional.of(review));
 
         adminService.deleteReview(10L);
 
-        verify(reviewRepository).deleteById(10L);
+        verify(reviewRepository).delete(review);
+        verify(bookRatingService).removeRating(3L, 7);
+    }
+
+    @Test
+    void shouldRebuildRatingSummaries() {
+        when(bookRatingService.rebuild()).thenReturn(5);
+
+        assertEquals(5, adminService.rebuildRatingSummaries());
     }
 
     @Test
     void shouldThrowException_WhenReviewDoesNotExist() {
-        when(reviewRepository.existsById(999L)).thenReturn(false);
+        when(reviewRepository.findById(999L)).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             adminService.deleteReview(999L);
         });
 
         assertEquals("Recenzja nie istnieje", exception.getMessage());
-        verify(reviewRepository, never()).deleteById(any());
+        verify(reviewRepository, never()).delete(any());
+        verifyNoInteractions(bookRatingService);
+    }
+
+    @Test
+    void shouldCollectAuthCacheStats() {
+        CacheStatsDTO principals = new CacheStatsDTO("userDetails", 1, 3, 1, 0.75, 0);
+        CacheStatsDTO credentials = new CacheStatsDTO("verifiedCredentials", 1, 2, 2, 0.5, 0);
+        when(userDetailsService.getCacheStats()).thenReturn(principals);
+        when(passwordEncoder.getCacheStats()).thenReturn(credentials);
+
+        assertEquals(List.of(principals, credentials), adminService.getAuthCacheStats());
     }
-}
\ No newline at end of file
+}
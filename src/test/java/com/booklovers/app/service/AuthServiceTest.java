@@ -1,13 +1,21 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.RegisterRequest;
+import com.booklovers.app.dto.TokenRequest;
+import com.booklovers.app.dto.TokenResponse;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
+import com.booklovers.app.security.TokenService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -28,6 +36,12 @@ class AuthServiceTest {
     @Mock
     private ShelfService shelfService;
 
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Mock
+    private TokenService tokenService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -73,4 +87,78 @@ class AuthServiceTest {
 
         verify(userRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldIssueToken_WhenCredentialsAreValid() {
+        UserDetails user = principal("jan", false);
+        TokenResponse tokens = new TokenResponse("access", "refresh", "Bearer", 900);
+        when(userDetailsService.loadUserByUsername("jan")).thenReturn(user);
+        when(passwordEncoder.matches("tajne", "hash")).thenReturn(true);
+        when(tokenService.issue(user)).thenReturn(tokens);
+
+        assertSame(tokens, authService.issueToken(tokenRequest("jan", "tajne")));
+    }
+
+    @Test
+    void shouldRejectToken_WhenPasswordIsWrong() {
+        when(userDetailsService.loadUserByUsername("jan")).thenReturn(principal("jan", false));
+        when(passwordEncoder.matches("zle", "hash")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> authService.issueToken(tokenRequest("jan", "zle")));
+        verify(tokenService, never()).issue(any());
+    }
+
+    @Test
+    void shouldRejectToken_WhenUserDoesNotExist() {
+        when(userDetailsService.loadUserByUsername("ghost")).thenThrow(new UsernameNotFoundException("brak"));
+
+        assertThrows(BadCredentialsException.class, () -> authService.issueToken(tokenRequest("ghost", "x")));
+    }
+
+    @Test
+    void shouldRejectToken_WhenAccountIsLocked() {
+        when(userDetailsService.loadUserByUsername("jan")).thenReturn(principal("jan", true));
+
+        assertThrows(LockedException.class, () -> authService.issueToken(tokenRequest("jan", "tajne")));
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void shouldRefreshToken_ReloadingUser() {
+        UserDetails current = principal("jan", false);
+        TokenResponse tokens = new TokenResponse("access2", "refresh2", "Bearer", 900);
+        when(tokenService.verify("refresh", TokenService.REFRESH)).thenReturn(principal("jan", false));
+        when(userDetailsService.loadUserByUsername("jan")).thenReturn(current);
+        when(tokenService.issue(current)).thenReturn(tokens);
+
+        assertSame(tokens, authService.refreshToken("refresh"));
+    }
+
+    @Test
+    void shouldRejectRefresh_WhenTokenIsInvalid() {
+        when(tokenService.verify("zly", TokenService.REFRESH)).thenReturn(null);
+
+        assertThrows(BadCredentialsException.class, () -> authService.refreshToken("zly"));
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void shouldRejectRefresh_WhenAccountWasLockedInMeantime() {
+        when(tokenService.verify("refresh", TokenService.REFRESH)).thenReturn(principal("jan", false));
+        when(userDetailsService.loadUserByUsername("jan")).thenReturn(principal("jan", true));
+
+        assertThrows(LockedException.class, () -> authService.refreshToken("refresh"));
+    }
+
+    private TokenRequest tokenRequest(String username, String password) {
+        TokenRequest request = new TokenRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    private UserDetails principal(String username, boolean locked) {
+        return org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("hash").authorities("ROLE_USER").accountLocked(locked).build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.Shelf;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Kontrolery wywołują eksport z wątku StreamingResponseBody, bez otwartej transakcji.
+@SpringBootTest
+@ActiveProfiles("test")
+class BackupExportTransactionTest {
+
+    @Autowired private BackupService backupService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ShelfRepository shelfRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private ShelfMembershipRepository shelfMembershipRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        book = bookRepository.save(new Book(null, "Nad Niemnem", "Orzeszkowa", "EXPORT-1"));
+
+        user = new User();
+        user.setUsername("eksporter");
+        user.setPassword("pass");
+        user.setEmail("eksporter@example.com");
+        userRepository.save(user);
+
+        Shelf shelf = new Shelf();
+        shelf.setName("Przeczytane");
+        shelf.setShelfCode("READ");
+        shelf.setUser(user);
+        shelfRepository.save(shelf);
+        shelfMembershipRepository.insertAll(shelf.getId(), List.of(book.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM shelf_books WHERE book_id = ?", book.getId());
+        userRepository.deleteById(user.getId());
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    void shouldExportCsvOutsideCallerTransaction() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        backupService.writeUserDataAsCsv(user.getId(), out, false);
+
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("Przeczytane,READ," + book.getId()));
+    }
+
+    @Test
+    void shouldExportPdfOutsideCallerTransaction() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        backupService.writeUserDataAsPdf(user.getId(), out);
+
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-"));
+        assertTrue(pdf.contains("Nad Niemnem"));
+    }
+}
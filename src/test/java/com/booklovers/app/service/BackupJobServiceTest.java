@@ -0,0 +1,166 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.BackupJobDTO;
+import com.booklovers.app.dto.ImportResultDTO;
+import com.booklovers.app.model.BackupJobStatus;
+import com.booklovers.app.model.BackupJobType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BackupJobServiceTest {
+
+    @Mock
+    private BackupService backupService;
+
+    @TempDir
+    Path directory;
+
+    private BackupJobService backupJobService;
+
+    @BeforeEach
+    void setUp() {
+        backupJobService = new BackupJobService(backupService, directory.toString(), 2, 1, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        backupJobService.shutdown();
+    }
+
+    @Test
+    void shouldRunExportInBackgroundAndExposeResultFile() throws Exception {
+        when(backupService.countExportEntries(1L)).thenReturn(4L);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("{\"username\":\"jan\"}".getBytes(StandardCharsets.UTF_8));
+            invocation.getArgument(2, LongConsumer.class).accept(4);
+            return null;
+        }).when(backupService).writeUserData(eq(1L), any(OutputStream.class), any(LongConsumer.class));
+
+        BackupJobDTO submitted = backupJobService.submitExport(1L, "json", false);
+        BackupJobDTO finished = awaitFinished(1L, submitted.getId());
+
+        assertEquals(BackupJobType.EXPORT_JSON, finished.getType());
+        assertEquals(BackupJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(4, finished.getProcessed());
+        assertEquals(100, finished.getPercent());
+
+        Path file = backupJobService.getResultFile(1L, submitted.getId()).orElseThrow();
+        assertEquals(submitted.getId() + ".json", file.getFileName().toString());
+        assertEquals("{\"username\":\"jan\"}", Files.readString(file));
+        assertTrue(backupJobService.getResultFile(2L, submitted.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldRunPdfExportJob() throws Exception {
+        when(backupService.countExportEntries(1L)).thenReturn(1L);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("%PDF-1.4".getBytes(StandardCharsets.US_ASCII));
+            invocation.getArgument(2, LongConsumer.class).accept(1);
+            return null;
+        }).when(backupService).writeUserDataAsPdf(eq(1L), any(OutputStream.class), any(LongConsumer.class));
+
+        BackupJobDTO submitted = backupJobService.submitExport(1L, "pdf", false);
+        BackupJobDTO finished = awaitFinished(1L, submitted.getId());
+
+        assertEquals(BackupJobType.EXPORT_PDF, finished.getType());
+        assertEquals(BackupJobStatus.COMPLETED, finished.getStatus());
+        Path file = backupJobService.getResultFile(1L, submitted.getId()).orElseThrow();
+        assertEquals(submitted.getId() + ".pdf", file.getFileName().toString());
+    }
+
+    @Test
+    void shouldRunImportFromSavedUploadAndRemoveIt() throws Exception {
+        when(backupService.importUserData(eq(1L), any(InputStream.class))).thenAnswer(invocation -> {
+            invocation.getArgument(1, InputStream.class).readAllBytes();
+            return new ImportResultDTO(1, 2, 0, 0);
+        });
+
+        BackupJobDTO submitted = backupJobService.submitImport(1L,
+                new ByteArrayInputStream("{\"shelves\":[]}".getBytes(StandardCharsets.UTF_8)));
+        BackupJobDTO finished = awaitFinished(1L, submitted.getId());
+
+        assertEquals(BackupJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(new ImportResultDTO(1, 2, 0, 0), finished.getImportResult());
+        assertEquals(finished.getTotal(), finished.getProcessed());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldMarkFailedJobAndDeletePartialFile() throws Exception {
+        doThrow(new RuntimeException("User not found"))
+                .when(backupService).writeUserDataAsCsv(eq(1L), any(OutputStream.class), eq(true), any(LongConsumer.class));
+
+        BackupJobDTO submitted = backupJobService.submitExport(1L, "csv", true);
+        BackupJobDTO finished = awaitFinished(1L, submitted.getId());
+
+        assertEquals(BackupJobStatus.FAILED, finished.getStatus());
+        assertEquals("User not found", finished.getError());
+        assertTrue(backupJobService.getResultFile(1L, submitted.getId()).isEmpty());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldLimitActiveJobsPerUser() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(backupService).writeUserData(eq(1L), any(OutputStream.class), any(LongConsumer.class));
+
+        BackupJobDTO first = backupJobService.submitExport(1L, "json", false);
+
+        assertThrows(IllegalStateException.class, () -> backupJobService.submitExport(1L, "json", false));
+        assertEquals(1, backupJobService.getJobs(1L).size());
+
+        release.countDown();
+        awaitFinished(1L, first.getId());
+        assertNotNull(backupJobService.submitExport(1L, "json", false));
+    }
+
+    @Test
+    void shouldHideJobsOfOtherUsers() {
+        BackupJobDTO submitted = backupJobService.submitExport(1L, "json", false);
+
+        assertTrue(backupJobService.getJob(2L, submitted.getId()).isEmpty());
+        assertTrue(backupJobService.getJobs(2L).isEmpty());
+    }
+
+    private BackupJobDTO awaitFinished(Long userId, String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            BackupJobDTO job = backupJobService.getJob(userId, jobId).orElseThrow();
+            if (job.getStatus() == BackupJobStatus.COMPLETED || job.getStatus() == BackupJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("Zadanie " + jobId + " nie zakończyło się w czasie");
+        return null;
+    }
+}
@@ -1,10 +1,11 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.BackupDTO;
-import com.booklovers.app.model.Book;
+import com.booklovers.app.dto.ImportResultDTO;
 import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.ShelfRepository;
 import com.booklovers.app.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,16 +14,36 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -32,7 +53,10 @@ class BackupServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private ShelfRepository shelfRepository;
     @Mock private BookRepository bookRepository;
-    @Mock private ObjectMapper objectMapper;
+    @Spy private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock private ExploreFeedService exploreFeedService;
+    @Mock private ShelfMembershipRepository shelfMembershipRepository;
+    @Mock private TransactionTemplate transactionTemplate;
 
     @InjectMocks private BackupService backupService;
 
@@ -51,103 +75,268 @@ class BackupServiceTest {
     }
 
     @Test
-    void shouldExportUserDataToJson() throws Exception {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(objectMapper.writeValueAsString(any(BackupDTO.class))).thenReturn("{}");
-
-        String json = backupService.exportUserData(1L);
-
-        assertNotNull(json);
-        verify(userRepository).findById(1L);
-        verify(objectMapper).writeValueAsString(any(BackupDTO.class));
-    }
-
-    @Test
-    void shouldExportUserDataToCSV() {
+    void shouldStreamUserDataAsJsonInBatches() throws Exception {
         Shelf shelf = new Shelf();
-        shelf.setName("Read");
+        shelf.setId(5L);
+        shelf.setName("Przeczytane");
         shelf.setShelfCode("READ");
-        shelf.setBooks(List.of(new Book()));
-        user.getShelves().add(shelf);
+        List<Long> firstBatch = LongStream.rangeClosed(1, 1000).boxed().toList();
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.findAllByUser(user)).thenReturn(List.of(shelf));
+        when(shelfRepository.findBookIdsAfter(eq(5L), eq(0L), any(Pageable.class))).thenReturn(firstBatch);
+        when(shelfRepository.findBookIdsAfter(eq(5L), eq(1000L), any(Pageable.class))).thenReturn(List.of(1001L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.writeUserData(1L, out);
+
+        BackupDTO backup = new ObjectMapper().readValue(out.toByteArray(), BackupDTO.class);
+        assertEquals("testuser", backup.getUsername());
+        assertEquals("Bio", backup.getBio());
+        assertEquals(1, backup.getShelves().size());
+        assertEquals("READ", backup.getShelves().get(0).getCode());
+        assertEquals(1001, backup.getShelves().get(0).getBookIds().size());
+        assertEquals(1001L, backup.getShelves().get(0).getBookIds().get(1000));
+        verify(shelfRepository, times(2)).findBookIdsAfter(eq(5L), anyLong(), any(Pageable.class));
+    }
 
-        String csv = backupService.exportUserDataToCSV(1L);
-
-        assertNotNull(csv);
-        assertTrue(csv.contains("testuser"));
-        assertTrue(csv.contains("READ"));
+    @Test
+    void shouldStreamUserDataAsCsvWithOneRowPerShelf() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookRows(1L)).thenReturn(Stream.of(
+                shelfBookRow(10L, "Read", "READ", 3L),
+                shelfBookRow(10L, "Read", "READ", 7L),
+                shelfBookRow(11L, "Empty", "EMPTY", null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.writeUserDataAsCsv(1L, out, false);
+
+        assertEquals("Username,Email,FullName,Bio,Avatar,ShelfName,ShelfCode,BookIds\n"
+                        + "testuser,test@example.com,Test User,Bio,Avatar,Read,READ,3;7\n"
+                        + "testuser,test@example.com,Test User,Bio,Avatar,Empty,EMPTY,\n",
+                out.toString(StandardCharsets.UTF_8));
     }
 
     @Test
-    void shouldExportUserDataToCSV_WithSpecialCharacters() {
+    void shouldStreamUserDataAsCsv_WithSpecialCharacters() throws Exception {
         user.setBio("Bio, with comma");
         user.setFullName("Name \"Quote\"");
 
-        Shelf shelf = new Shelf();
-        shelf.setName("Read");
-        shelf.setShelfCode("READ");
-        shelf.setBooks(new ArrayList<>());
-        user.getShelves().add(shelf);
-
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookRows(1L)).thenReturn(Stream.of(shelfBookRow(10L, "Read", "READ", null)));
 
-        String csv = backupService.exportUserDataToCSV(1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.writeUserDataAsCsv(1L, out, false);
 
-        assertNotNull(csv);
+        String csv = out.toString(StandardCharsets.UTF_8);
         assertTrue(csv.contains("\"Bio, with comma\""));
         assertTrue(csv.contains("\"Name \"\"Quote\"\"\""));
     }
 
     @Test
-    void shouldExportUserDataToPDF() {
+    void shouldStreamUserDataAsGzippedCsv() throws Exception {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookRows(1L)).thenReturn(Stream.of(shelfBookRow(10L, "Read", "READ", 3L)));
 
-        byte[] pdf = backupService.exportUserDataToPDF(1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.writeUserDataAsCsv(1L, out, true);
 
-        assertNotNull(pdf);
-        assertTrue(pdf.length > 0);
-        String pdfContent = new String(pdf);
-        assertTrue(pdfContent.contains("%PDF"));
-        assertTrue(pdfContent.contains("testuser"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(csv.endsWith("Read,READ,3\n"));
+        }
     }
 
     @Test
-    void shouldImportUserData() throws Exception {
-        String json = "{}";
-        BackupDTO backupDTO = new BackupDTO();
-        backupDTO.setShelves(new ArrayList<>());
+    void shouldStreamMillionRowCsvExport() throws Exception {
+        int shelves = 100;
+        int booksPerShelf = 10_000;
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookRows(1L)).thenReturn(LongStream.range(0, (long) shelves * booksPerShelf)
+                .mapToObj(i -> shelfBookRow(i / booksPerShelf, "Shelf", "CODE", i)));
+
+        CountingOutputStream out = new CountingOutputStream();
+        backupService.writeUserDataAsCsv(1L, out, false);
+
+        assertEquals(shelves + 1, out.lines);
+        assertTrue(out.bytes > (long) shelves * booksPerShelf);
+    }
+
+    private static ShelfRepository.ShelfBookRow shelfBookRow(Long shelfId, String name, String code, Long bookId) {
+        return new ShelfRepository.ShelfBookRow() {
+            @Override public Long getShelfId() { return shelfId; }
+            @Override public String getShelfName() { return name; }
+            @Override public String getShelfCode() { return code; }
+            @Override public Long getBookId() { return bookId; }
+        };
+    }
+
+    private static ShelfRepository.ShelfBookDetailsRow shelfBookDetails(Long shelfId, String name, String code,
+                                                                       Long bookId, String title, String author,
+                                                                       String isbn) {
+        return new ShelfRepository.ShelfBookDetailsRow() {
+            @Override public Long getShelfId() { return shelfId; }
+            @Override public String getShelfName() { return name; }
+            @Override public String getShelfCode() { return code; }
+            @Override public Long getBookId() { return bookId; }
+            @Override public String getTitle() { return title; }
+            @Override public String getAuthor() { return author; }
+            @Override public String getIsbn() { return isbn; }
+        };
+    }
+
+    // Zlicza bajty i wiersze bez przechowywania danych - eksport nie powinien niczego buforować w całości.
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') lines++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines++;
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteShelvesAndBooksToPdf() throws Exception {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookDetails(1L)).thenReturn(Stream.of(
+                shelfBookDetails(10L, "Przeczytane", "READ", 3L, "Lalka", "Bolesław Prus", "978-83-240-1234-5"),
+                shelfBookDetails(11L, "Chcę przeczytać", "WANT", null, null, null, null)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.writeUserDataAsPdf(1L, out);
+
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("(Biblioteka u"));
+        assertTrue(pdf.contains("testuser) Tj"));
+        assertTrue(pdf.contains("Lalka \u0097 Boles"));
+        assertTrue(pdf.contains("\\(ISBN 978-83-240-1234-5\\)"));
+        assertTrue(pdf.contains("(Brak ksi"));
+    }
+
+    @Test
+    void shouldStreamLargeLibraryToPdf() throws Exception {
+        int books = 20_000;
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.streamShelfBookDetails(1L)).thenReturn(LongStream.range(0, books)
+                .mapToObj(i -> shelfBookDetails(i / 5_000, "Półka " + i / 5_000, "CODE", i,
+                        "Tytuł " + i, "Autor " + i, null)));
+
+        CountingOutputStream out = new CountingOutputStream();
+        AtomicLong progress = new AtomicLong();
+        long start = System.nanoTime();
+        backupService.writeUserDataAsPdf(1L, out, progress::addAndGet);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(books, progress.get());
+        assertTrue(out.bytes > (long) books * 20);
+        assertTrue(elapsedMs < 10_000, "Generowanie PDF trwało " + elapsedMs + " ms");
+    }
 
+    @Test
+    void shouldImportUserData() throws Exception {
+        stubTransactions();
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(objectMapper.readValue(anyString(), eq(BackupDTO.class))).thenReturn(backupDTO);
 
-        backupService.importUserData(1L, json);
+        backupService.importUserData(1L, json("{\"username\":\"ignored\",\"bio\":\"Nowe bio\",\"shelves\":[]}"));
 
+        assertEquals("Nowe bio", user.getBio());
+        assertEquals("Avatar", user.getAvatar());
         verify(userRepository).save(user);
+        verify(exploreFeedService).evictUser(1L);
     }
 
     @Test
     void shouldImportUserData_WithShelvesAndBooks() throws Exception {
-        BackupDTO backupDTO = new BackupDTO();
-        BackupDTO.ShelfBackupDTO shelfDTO = new BackupDTO.ShelfBackupDTO();
-        shelfDTO.setCode("READ");
-        shelfDTO.setName("Read");
-        shelfDTO.setBookIds(List.of(100L));
-        backupDTO.setShelves(List.of(shelfDTO));
+        stubTransactions();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.findAllByUser(user)).thenReturn(List.of());
+        when(shelfRepository.save(any(Shelf.class))).thenAnswer(i -> {
+            Shelf saved = i.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(100L));
+        when(shelfMembershipRepository.findBookIds(eq(7L), anyCollection())).thenReturn(new HashSet<>());
+        when(shelfMembershipRepository.insertAll(7L, List.of(100L))).thenReturn(1);
+
+        ImportResultDTO result = backupService.importUserData(1L,
+                json("{\"shelves\":[{\"name\":\"Read\",\"code\":\"READ\",\"bookIds\":[100]}]}"));
+
+        assertEquals(new ImportResultDTO(1, 1, 0, 0), result);
+        verify(shelfRepository).save(argThat(shelf -> "READ".equals(shelf.getShelfCode())
+                && "Read".equals(shelf.getName())));
+        verify(userRepository, never()).save(any());
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldImportIntoExistingShelf_SkippingDuplicatesAndUnknownBooks() throws Exception {
+        stubTransactions();
+        Shelf existing = new Shelf();
+        existing.setId(5L);
+        existing.setShelfCode("READ");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(objectMapper.readValue(anyString(), eq(BackupDTO.class))).thenReturn(backupDTO);
+        when(shelfRepository.findAllByUser(user)).thenReturn(List.of(existing));
+        when(bookRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L, 3L));
+        when(shelfMembershipRepository.findBookIds(eq(5L), anyCollection())).thenReturn(new HashSet<>(Set.of(1L)));
+        when(shelfMembershipRepository.insertAll(5L, List.of(2L, 3L))).thenReturn(2);
 
-        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.empty());
-        when(shelfRepository.save(any(Shelf.class))).thenAnswer(i -> i.getArguments()[0]);
+        ImportResultDTO result = backupService.importUserData(1L,
+                json("{\"shelves\":[{\"bookIds\":[1,2,2,3,999,null],\"code\":\"READ\"}]}"));
 
-        Book book = new Book();
-        book.setId(100L);
-        when(bookRepository.findById(100L)).thenReturn(Optional.of(book));
+        assertEquals(new ImportResultDTO(0, 2, 2, 2), result);
+        verify(shelfRepository, never()).save(any(Shelf.class));
+        verify(bookRepository, times(1)).findExistingIds(anyCollection());
+    }
 
-        backupService.importUserData(1L, "json");
+    @Test
+    void shouldImportLargeShelfInChunks() throws Exception {
+        stubTransactions();
+        Shelf existing = new Shelf();
+        existing.setId(5L);
+        existing.setShelfCode("READ");
+        String ids = LongStream.rangeClosed(1, 2500).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(shelfRepository.findAllByUser(user)).thenReturn(List.of(existing));
+        when(bookRepository.findExistingIds(anyCollection())).thenAnswer(i -> new ArrayList<>(i.<Collection<Long>>getArgument(0)));
+        when(shelfMembershipRepository.findBookIds(eq(5L), anyCollection())).thenReturn(new HashSet<>());
+        when(shelfMembershipRepository.insertAll(eq(5L), anyCollection())).thenAnswer(i -> i.<Collection<Long>>getArgument(1).size());
+
+        ImportResultDTO result = backupService.importUserData(1L,
+                json("{\"shelves\":[{\"name\":\"Read\",\"code\":\"READ\",\"bookIds\":[" + ids + "]}]}"));
+
+        assertEquals(2500, result.getBooksAdded());
+        verify(shelfMembershipRepository, times(3)).insertAll(eq(5L), anyCollection());
+        verify(transactionTemplate, times(4)).execute(any());
+    }
+
+    @Test
+    void shouldRejectBackupThatIsNotAnObject() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThrows(IllegalArgumentException.class, () -> backupService.importUserData(1L, json("[]")));
+        verify(shelfMembershipRepository, never()).insertAll(anyLong(), anyCollection());
+    }
+
+    private void stubTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
 
-        verify(shelfRepository, atLeastOnce()).save(any(Shelf.class));
-        verify(bookRepository).findById(100L);
+    private static InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
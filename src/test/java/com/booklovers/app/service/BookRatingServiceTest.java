@@ -0,0 +1,140 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.model.BookRatingSummary;
+import com.booklovers.app.repository.BookRatingSummaryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookRatingServiceTest {
+
+    @Mock
+    private BookRatingSummaryRepository summaryRepository;
+
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private BookRatingService bookRatingService;
+
+    @Test
+    void shouldIncrementExistingSummary() {
+        when(summaryRepository.applyRating(1L, 7, 1)).thenReturn(1);
+
+        bookRatingService.recordRating(1L, 7);
+
+        verify(summaryRepository, never()).insertEmptyIfAbsent(any());
+        verify(bookSearchService).reviewCountChanged(1L, 1);
+    }
+
+    @Test
+    void shouldUpsertSummary_WhenMissing() {
+        when(summaryRepository.applyRating(1L, 7, 1)).thenReturn(0, 1);
+
+        bookRatingService.recordRating(1L, 7);
+
+        InOrder inOrder = inOrder(summaryRepository);
+        inOrder.verify(summaryRepository).applyRating(1L, 7, 1);
+        inOrder.verify(summaryRepository).insertEmptyIfAbsent(1L);
+        inOrder.verify(summaryRepository).applyRating(1L, 7, 1);
+        verify(summaryRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldSkipStartupRebuild_WhenSummariesExist() {
+        when(summaryRepository.count()).thenReturn(3L);
+
+        bookRatingService.rebuildOnStartup();
+
+        verifyNoInteractions(transactionTemplate);
+        verify(summaryRepository, never()).deleteAllSummaries();
+    }
+
+    @Test
+    void shouldRebuildOnStartup_WhenTableIsEmpty() {
+        when(summaryRepository.count()).thenReturn(0L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        bookRatingService.rebuildOnStartup();
+
+        verify(summaryRepository).rebuildFromReviews();
+    }
+
+    @Test
+    void shouldIgnoreStartupRebuildRace_WithOtherNode() {
+        when(summaryRepository.count()).thenReturn(0L);
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(transactionTemplate).executeWithoutResult(any());
+
+        assertDoesNotThrow(() -> bookRatingService.rebuildOnStartup());
+    }
+
+    @Test
+    void shouldRejectRatingOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> bookRatingService.recordRating(1L, 11));
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    void shouldDecrementOnRemoval() {
+        when(summaryRepository.applyRating(1L, 4, -1)).thenReturn(1);
+
+        bookRatingService.removeRating(1L, 4);
+
+        verify(summaryRepository).applyRating(1L, 4, -1);
+        verify(bookSearchService).reviewCountChanged(1L, -1);
+    }
+
+    @Test
+    void shouldReturnEmptySummary_WhenNoneStored() {
+        when(summaryRepository.findById(5L)).thenReturn(Optional.empty());
+
+        BookRatingSummary summary = bookRatingService.getSummary(5L);
+
+        assertEquals(5L, summary.getBookId());
+        assertEquals(0, summary.getReviewCount());
+        assertEquals(0.0, summary.getAverageRating());
+    }
+
+    @Test
+    void shouldMapSummariesByBookId() {
+        BookRatingSummary summary = new BookRatingSummary(2L);
+        when(summaryRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(summary));
+
+        Map<Long, BookRatingSummary> result = bookRatingService.getSummaries(List.of(2L, 3L));
+
+        assertEquals(1, result.size());
+        assertSame(summary, result.get(2L));
+    }
+
+    @Test
+    void shouldRebuildFromReviews() {
+        when(summaryRepository.rebuildFromReviews()).thenReturn(4);
+
+        assertEquals(4, bookRatingService.rebuild());
+
+        verify(summaryRepository).deleteAllSummaries();
+        verify(bookSearchService).reviewCountsRebuilt();
+    }
+}
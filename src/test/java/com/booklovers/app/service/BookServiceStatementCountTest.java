@@ -0,0 +1,82 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.Review;
+import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ReviewRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookServiceStatementCountTest {
+
+    @Autowired private BookService bookService;
+    @Autowired private BookRatingService bookRatingService;
+    @Autowired private BookSearchService bookSearchService;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private ReviewRepository reviewRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        reviewRepository.deleteAll();
+        bookRepository.deleteAll();
+
+        for (int i = 0; i < 25; i++) {
+            Book book = bookRepository.save(new Book(null, "Książka " + i, "Autor " + i, "1000" + i));
+            for (int rating = 1; rating <= 3; rating++) {
+                Review review = new Review();
+                review.setBook(book);
+                review.setRating(rating + i % 5);
+                review.setContent("Recenzja " + rating);
+                review.setCreatedAt(LocalDateTime.now());
+                reviewRepository.save(review);
+            }
+        }
+        entityManager.flush();
+        bookRatingService.rebuild();
+        bookSearchService.rebuild();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void exploreWithoutQueryShouldUseConstantNumberOfStatements() {
+        List<BookExploreDTO> result = bookService.exploreBooks(null, null, 50).getBooks();
+
+        assertEquals(25, result.size());
+        assertEquals(3, result.get(0).getReviewCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exploreWithQueryShouldUseConstantNumberOfStatements() {
+        List<BookExploreDTO> result = bookService.exploreBooks("Książka", null, 50).getBooks();
+
+        assertEquals(25, result.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,16 +1,17 @@
 package com.booklovers.app.service;
 
 import com.booklovers.app.dto.BookExploreDTO;
+import com.booklovers.app.dto.BookExplorePageDTO;
 import com.booklovers.app.dto.BookRequest;
 import com.booklovers.app.dto.BookStatsDTO;
 import com.booklovers.app.dto.ReviewRequest;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BookRatingSummary;
 import com.booklovers.app.model.Review;
-import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.BookRepository;
 import com.booklovers.app.repository.ReviewRepository;
-import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.StatisticsRepository;
 import com.booklovers.app.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -23,13 +24,15 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,7 +45,7 @@ class BookServiceTest {
     private ReviewRepository reviewRepository;
 
     @Mock
-    private ShelfRepository shelfRepository;
+    private ShelfMembershipRepository shelfMembershipRepository;
 
     @Mock
     private UserRepository userRepository;
@@ -50,6 +53,18 @@ class BookServiceTest {
     @Mock
     private StatisticsRepository statisticsRepository;
 
+    @Mock
+    private BookRatingService bookRatingService;
+
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private ExploreFeedService exploreFeedService;
+
+    @Mock
+    private ShelfActivityService shelfActivityService;
+
     @InjectMocks
     private BookService bookService;
 
@@ -59,14 +74,14 @@ class BookServiceTest {
         book.setId(1L);
         book.setTitle("Test Book");
 
-        when(bookRepository.findAll()).thenReturn(List.of(book));
-        when(reviewRepository.findByBookId(1L)).thenReturn(Collections.emptyList());
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(book));
+        when(bookRatingService.getSummaries(List.of(1L))).thenReturn(Map.of());
 
-        List<BookExploreDTO> result = bookService.exploreBooks("");
+        BookExplorePageDTO result = bookService.exploreBooks("", null, 20);
 
-        assertEquals(1, result.size());
-        verify(bookRepository, times(1)).findAll();
-        verify(bookRepository, never()).findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(any(), any(), any());
+        assertEquals(1, result.getBooks().size());
+        assertNull(result.getNextCursor());
+        verify(bookSearchService, never()).search(any());
     }
 
     @Test
@@ -76,15 +91,40 @@ class BookServiceTest {
         book.setId(2L);
         book.setTitle("Wiedźmin");
 
-        when(bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(query, query, query))
-                .thenReturn(List.of(book));
-        when(reviewRepository.findByBookId(2L)).thenReturn(Collections.emptyList());
+        when(bookSearchService.search(query)).thenReturn(List.of(2L));
+        when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(book));
+        when(bookRatingService.getSummaries(List.of(2L))).thenReturn(Map.of());
 
-        List<BookExploreDTO> result = bookService.exploreBooks(query);
+        BookExplorePageDTO result = bookService.exploreBooks(query, null, 20);
 
-        assertEquals(1, result.size());
-        assertEquals("Wiedźmin", result.get(0).getTitle());
-        verify(bookRepository).findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(query, query, query);
+        assertEquals(1, result.getBooks().size());
+        assertEquals("Wiedźmin", result.getBooks().get(0).getTitle());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void shouldKeepRankingOrderAndPageSearchResults() {
+        Book b1 = new Book(); b1.setId(1L);
+        Book b2 = new Book(); b2.setId(2L);
+        Book b3 = new Book(); b3.setId(3L);
+
+        when(bookSearchService.search("wojna")).thenReturn(List.of(3L, 1L, 2L));
+        when(bookRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(b1, b3));
+        when(bookRatingService.getSummaries(List.of(3L, 1L))).thenReturn(Map.of());
+
+        BookExplorePageDTO first = bookService.exploreBooks("wojna", null, 2);
+
+        assertEquals(List.of(3L, 1L), first.getBooks().stream().map(BookExploreDTO::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(b2));
+        when(bookRatingService.getSummaries(List.of(2L))).thenReturn(Map.of());
+
+        BookExplorePageDTO second = bookService.exploreBooks("wojna", first.getNextCursor(), 2);
+
+        assertEquals(2L, second.getBooks().get(0).getId());
+        assertNull(second.getNextCursor());
+        verify(bookRepository, never()).findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrIsbnContainingIgnoreCase(any(), any(), any());
     }
 
     @Test
@@ -92,17 +132,18 @@ class BookServiceTest {
         Book book = new Book();
         book.setId(10L);
 
-        Review r1 = new Review(); r1.setRating(10);
-        Review r2 = new Review(); r2.setRating(5);
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(book));
+        BookRatingSummary summary = new BookRatingSummary(10L);
+        summary.apply(10, 1);
+        summary.apply(5, 1);
+        when(bookRatingService.getSummaries(List.of(10L))).thenReturn(Map.of(10L, summary));
 
-        when(bookRepository.findAll()).thenReturn(List.of(book));
-        when(reviewRepository.findByBookId(10L)).thenReturn(List.of(r1, r2));
+        BookExplorePageDTO result = bookService.exploreBooks(null, null, 20);
 
-        List<BookExploreDTO> result = bookService.exploreBooks(null);
-
-        BookExploreDTO dto = result.get(0);
+        BookExploreDTO dto = result.getBooks().get(0);
         assertEquals(2, dto.getReviewCount());
         assertEquals(7.5, dto.getAverageRating(), 0.01);
+        verify(reviewRepository, never()).findByBookId(any());
     }
 
     @Test
@@ -110,13 +151,68 @@ class BookServiceTest {
         Book book = new Book();
         book.setId(10L);
 
-        when(bookRepository.findAll()).thenReturn(List.of(book));
-        when(reviewRepository.findByBookId(10L)).thenReturn(Collections.emptyList());
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(book));
+        when(bookRatingService.getSummaries(List.of(10L))).thenReturn(Map.of());
+
+        BookExplorePageDTO result = bookService.exploreBooks(null, null, 20);
+
+        assertEquals(0, result.getBooks().get(0).getReviewCount());
+        assertEquals(0.0, result.getBooks().get(0).getAverageRating());
+    }
+
+    @Test
+    void shouldResolveIsbnQueryThroughExactLookup() {
+        Book book = new Book();
+        book.setId(7L);
+        book.setTitle("Wiedźmin");
+
+        when(bookRepository.findByIsbn13("9788375780635")).thenReturn(Optional.of(book));
+        when(bookRatingService.getSummaries(List.of(7L))).thenReturn(Map.of());
+
+        BookExplorePageDTO result = bookService.exploreBooks("978-83-7578-063-5", null, 20);
 
-        List<BookExploreDTO> result = bookService.exploreBooks(null);
+        assertEquals(7L, result.getBooks().get(0).getId());
+        assertNull(result.getNextCursor());
+        verify(bookSearchService, never()).search(any());
+    }
+
+    @Test
+    void shouldFallBackToIndex_WhenIsbnNotFound() {
+        when(bookRepository.findByIsbn13("9788375780635")).thenReturn(Optional.empty());
+        when(bookSearchService.search("9788375780635")).thenReturn(List.of());
 
-        assertEquals(0, result.get(0).getReviewCount());
-        assertEquals(0.0, result.get(0).getAverageRating());
+        BookExplorePageDTO result = bookService.exploreBooks("9788375780635", null, 20);
+
+        assertTrue(result.getBooks().isEmpty());
+    }
+
+    @Test
+    void shouldReturnNextCursor_WhenMoreBooksAvailable() {
+        Book b1 = new Book(); b1.setId(1L);
+        Book b2 = new Book(); b2.setId(2L);
+        Book b3 = new Book(); b3.setId(3L);
+
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(PageRequest.of(0, 3)))).thenReturn(List.of(b1, b2, b3));
+        when(bookRatingService.getSummaries(List.of(1L, 2L))).thenReturn(Map.of());
+
+        BookExplorePageDTO first = bookService.exploreBooks(null, null, 2);
+
+        assertEquals(2, first.getBooks().size());
+        assertNotNull(first.getNextCursor());
+
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(PageRequest.of(0, 3)))).thenReturn(List.of(b3));
+        when(bookRatingService.getSummaries(List.of(3L))).thenReturn(Map.of());
+
+        BookExplorePageDTO second = bookService.exploreBooks(null, first.getNextCursor(), 2);
+
+        assertEquals(1, second.getBooks().size());
+        assertEquals(3L, second.getBooks().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.exploreBooks(null, "!!!", 20));
     }
 
     @Test
@@ -187,11 +283,12 @@ class BookServiceTest {
         book.setId(1L);
         book.setTitle("Title");
 
-        Review r1 = new Review(); r1.setRating(5);
-        Review r2 = new Review(); r2.setRating(4);
+        BookRatingSummary summary = new BookRatingSummary(1L);
+        summary.apply(5, 1);
+        summary.apply(4, 1);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(reviewRepository.findByBookId(1L)).thenReturn(List.of(r1, r2));
+        when(bookRatingService.getSummary(1L)).thenReturn(summary);
 
         BookStatsDTO result = bookService.getBookStats(1L);
 
@@ -200,12 +297,14 @@ class BookServiceTest {
         assertEquals(2, result.getTotalReaders());
         assertEquals(1L, result.getRatingDistribution().get(5));
         assertEquals(1L, result.getRatingDistribution().get(4));
+        verify(reviewRepository, never()).findByBookId(any());
     }
 
     @Test
     void shouldAddReview_Success() {
         User user = new User();
         Book book = new Book();
+        book.setId(1L);
         ReviewRequest request = new ReviewRequest();
         request.setRating(5);
         request.setContent("Content");
@@ -217,6 +316,8 @@ class BookServiceTest {
         bookService.addReview(1L, "user", request);
 
         verify(reviewRepository).save(any(Review.class));
+        verify(bookRatingService).recordRating(1L, 5);
+        verify(shelfActivityService).recordReview(user, book, 5);
     }
 
     @Test
@@ -242,17 +343,16 @@ class BookServiceTest {
     void shouldDeleteBook() {
         Book book = new Book();
         book.setId(1L);
-        Shelf shelf = new Shelf();
-        shelf.setBooks(new ArrayList<>(List.of(book)));
-        book.setShelves(new ArrayList<>(List.of(shelf)));
-
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
 
         bookService.deleteBook(1L);
 
-        assertFalse(shelf.getBooks().contains(book));
-        verify(shelfRepository).save(shelf);
+        verify(shelfMembershipRepository).deleteByBookId(1L);
+        verify(reviewRepository).deleteByBookId(1L);
         verify(bookRepository).delete(book);
+        verify(bookRatingService).removeBook(1L);
+        verify(bookSearchService).bookDeleted(1L);
+        verify(exploreFeedService).evictAll();
     }
 
     @Test
@@ -260,6 +360,7 @@ class BookServiceTest {
         when(statisticsRepository.updateTitleRaw(1L, "New")).thenReturn(1);
         int result = bookService.updateTitleRaw(1L, "New");
         assertEquals(1, result);
+        verify(bookSearchService).titleChanged(1L, "New");
     }
 
     @Test
@@ -275,6 +376,81 @@ class BookServiceTest {
 
         assertEquals("T", result.getTitle());
         assertEquals("A", result.getAuthor());
+        verify(bookSearchService).bookSaved(result);
+    }
+
+    @Test
+    void shouldRejectBook_WhenIsbnAlreadyExists() {
+        Book existing = new Book();
+        existing.setId(5L);
+        BookRequest request = new BookRequest();
+        request.setTitle("T");
+        request.setAuthor("A");
+        request.setIsbn("0-306-40615-2");
+
+        when(bookRepository.findByIsbn13("9780306406157")).thenReturn(Optional.of(existing));
+
+        assertThrows(IllegalStateException.class, () -> bookService.createBook(request));
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectUpdate_WhenLegacyDuplicateIsbnWasNotBackfilled() {
+        Book duplicate = new Book(9L, "Kopia", "A", "978-0-306-40615-7");
+        Book original = new Book(5L, "Oryginał", "A", "9780306406157");
+        BookRequest request = new BookRequest();
+        request.setTitle("Nowy tytuł");
+        request.setAuthor("A");
+        request.setIsbn(duplicate.getIsbn());
+
+        when(bookRepository.findById(9L)).thenReturn(Optional.of(duplicate));
+        when(bookRepository.findByIsbn13("9780306406157")).thenReturn(Optional.of(original));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bookService.updateBook(9L, request));
+        assertTrue(e.getMessage().contains("ID: 5"));
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldBackfillIsbn13WithSingleLookupOfAssignedValues() {
+        Book legacy = new Book(1L, "Solaris", "Lem", "83-08-01234-5");
+        Book duplicate = new Book(2L, "Kopia", "Lem", "978-83-08-01234-5");
+        Book taken = new Book(3L, "Lalka", "Prus", "978-83-240-1234-5");
+        when(bookRepository.findIsbn13BackfillCandidates()).thenReturn(List.of(legacy, duplicate, taken));
+        when(bookRepository.findAssignedIsbn13()).thenReturn(Set.of("9788324012345"));
+
+        bookService.backfillIsbn13();
+
+        assertEquals("9788308012345", legacy.getIsbn13());
+        assertNull(duplicate.getIsbn13());
+        assertNull(taken.getIsbn13());
+        verify(bookRepository, times(1)).findAssignedIsbn13();
+        verify(bookRepository, never()).findByIsbn13(any());
+    }
+
+    @Test
+    void shouldSkipBackfill_WhenNoCandidates() {
+        when(bookRepository.findIsbn13BackfillCandidates()).thenReturn(List.of());
+
+        bookService.backfillIsbn13();
+
+        verify(bookRepository, never()).findAssignedIsbn13();
+    }
+
+    @Test
+    void shouldAllowUpdate_WhenIsbnBelongsToSameBook() {
+        Book book = new Book();
+        book.setId(5L);
+        BookRequest request = new BookRequest();
+        request.setTitle("T");
+        request.setAuthor("A");
+        request.setIsbn("978-0-306-40615-7");
+
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(bookRepository.findByIsbn13("9780306406157")).thenReturn(Optional.of(book));
+        when(bookRepository.save(book)).thenReturn(book);
+
+        assertEquals("T", bookService.updateBook(5L, request).getTitle());
     }
 
     @Test
@@ -0,0 +1,179 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.DumpResultDTO;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.Review;
+import com.booklovers.app.model.Shelf;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.DatabaseDumpRepository;
+import com.booklovers.app.repository.ReviewRepository;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+// Odtworzenie zatwierdza własne transakcje, więc test działa bez transakcji testowej i sam czyści bazę.
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DatabaseDumpService.class, DatabaseDumpRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DatabaseDumpServiceTest {
+
+    @TempDir
+    static Path dumpDirectory;
+
+    @DynamicPropertySource
+    static void dumpProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.admin.dump.directory", () -> dumpDirectory.toString());
+    }
+
+    @Autowired private DatabaseDumpService databaseDumpService;
+    @Autowired private DatabaseDumpRepository dumpRepository;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ShelfRepository shelfRepository;
+    @Autowired private ReviewRepository reviewRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @MockBean private BookRatingService bookRatingService;
+    @MockBean private BookSearchService bookSearchService;
+    @MockBean private ExploreFeedService exploreFeedService;
+    @MockBean private CustomUserDetailsService userDetailsService;
+
+    private Book lalka;
+    private User reader;
+    private LocalDateTime reviewedAt;
+
+    @BeforeEach
+    void setUp() {
+        dumpRepository.deleteAll();
+
+        lalka = bookRepository.save(new Book(null, "Lalka", "Prus", "978-83-240-1234-5"));
+        Book faraon = bookRepository.save(new Book(null, "Faraon", "Prus", null));
+
+        reader = new User();
+        reader.setUsername("czytelnik");
+        reader.setPassword("hash");
+        reader.setEmail("czytelnik@example.com");
+        reader.setRole("USER");
+        reader.setFullName("Jan Czytelnik");
+        reader.setLocked(true);
+        userRepository.save(reader);
+
+        Shelf shelf = new Shelf();
+        shelf.setName("Przeczytane");
+        shelf.setShelfCode("READ");
+        shelf.setUser(reader);
+        shelf.setBooks(new HashSet<>(List.of(lalka, faraon)));
+        shelfRepository.save(shelf);
+
+        reviewedAt = LocalDateTime.of(2024, 5, 17, 20, 15, 30, 250_000_000);
+        reviewRepository.save(new Review(null, 9, "Świetna", reviewedAt, reader, lalka));
+        reviewRepository.save(new Review(null, 4, null, reviewedAt, null, faraon));
+
+        jdbcTemplate.update("INSERT INTO shelf_activity (type, user_id, username, book_id, book_title, book_author, "
+                        + "shelf_code, previous_shelf_code, rating, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                "MOVED", reader.getId(), "czytelnik", lalka.getId(), "Lalka", "Prus", "READ", "READING", null,
+                Timestamp.valueOf(reviewedAt));
+    }
+
+    @Test
+    void shouldRestoreDatabaseFromDump() throws IOException {
+        DumpResultDTO dump = databaseDumpService.dump();
+
+        assertTrue(Files.isRegularFile(dumpDirectory.resolve(dump.getFileName())));
+        assertEquals(Files.size(dumpDirectory.resolve(dump.getFileName())), dump.getSizeBytes());
+        assertEquals(Map.of("book", 2L, "app_user", 1L, "shelf", 1L, "shelf_books", 2L, "review", 2L,
+                "shelf_activity", 1L), dump.getRows());
+
+        // Docelowa baza jest pusta i ma świeże liczniki IDENTITY
+        dumpRepository.deleteAll();
+        for (String table : List.of("book", "app_user", "shelf", "review", "shelf_activity")) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH 1");
+        }
+        bookRepository.save(new Book(null, "Intruz", "Nikt", null));
+
+        DumpResultDTO restored = databaseDumpService.restore(dump.getFileName());
+
+        assertEquals(dump.getRows(), restored.getRows());
+        assertEquals(List.of("Faraon", "Lalka"),
+                jdbcTemplate.queryForList("SELECT title FROM book ORDER BY title", String.class));
+        User restoredUser = userRepository.findById(reader.getId()).orElseThrow();
+        assertEquals("Jan Czytelnik", restoredUser.getFullName());
+        assertNull(restoredUser.getBio());
+        assertTrue(restoredUser.isLocked());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf_books", Integer.class));
+        Review review = reviewRepository.findByBookId(lalka.getId()).get(0);
+        assertEquals(reviewedAt, review.getCreatedAt());
+        assertEquals("Świetna", review.getContent());
+        Map<String, Object> activity = jdbcTemplate.queryForMap("SELECT * FROM shelf_activity");
+        assertEquals("MOVED", activity.get("type"));
+        assertEquals(reader.getId(), ((Number) activity.get("user_id")).longValue());
+        assertEquals("READING", activity.get("previous_shelf_code"));
+        assertNull(activity.get("rating"));
+        assertEquals(reviewedAt, ((Timestamp) activity.get("created_at")).toLocalDateTime());
+
+        verify(bookRatingService).rebuild();
+        verify(bookSearchService).rebuild();
+        verify(exploreFeedService).evictAll();
+        verify(userDetailsService).evictAll();
+
+        Book added = bookRepository.save(new Book(null, "Emancypantki", "Prus", null));
+        assertTrue(added.getId() > lalka.getId());
+    }
+
+    @Test
+    void shouldKeepDataWhenDumpIsCorrupted() throws IOException {
+        DumpResultDTO dump = databaseDumpService.dump();
+        Path file = dumpDirectory.resolve(dump.getFileName());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> databaseDumpService.restore(dump.getFileName()));
+
+        assertEquals(2, bookRepository.count());
+        assertEquals(2, reviewRepository.count());
+    }
+
+    @Test
+    void shouldRejectFileOutsideDumpDirectory() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> databaseDumpService.restore("../application.bldump"));
+        assertEquals("Niepoprawna nazwa pliku zrzutu: ../application.bldump", e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> databaseDumpService.restore("backup.json"));
+    }
+
+    @Test
+    void shouldFailForMissingDump() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> databaseDumpService.restore("missing.bldump"));
+        assertEquals("Plik zrzutu nie istnieje: missing.bldump", e.getMessage());
+    }
+}
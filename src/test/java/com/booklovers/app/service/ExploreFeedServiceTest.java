@@ -0,0 +1,150 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.ExploreDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.ShelfRepository.ExploreBookRow;
+import com.booklovers.app.repository.ShelfRepository.ExploreShelfRow;
+import com.booklovers.app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExploreFeedServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ShelfRepository shelfRepository;
+
+    @InjectMocks
+    private ExploreFeedService exploreFeedService;
+
+    @Test
+    void shouldGroupRowsIntoUserFeeds() {
+        when(userRepository.findIdsAfter(0L, PageRequest.of(0, 21))).thenReturn(List.of(1L, 2L));
+        when(shelfRepository.findExploreShelfRows(anyCollection())).thenReturn(List.of(
+                shelfRow(1L, "explorer", 10L, "Favs", "FAV", 7L),
+                shelfRow(1L, "explorer", 11L, "Pusta", "EMPTY", 0L),
+                shelfRow(2L, "newbie", null, null, null, 0L)));
+        when(shelfRepository.findExploreTopBooks(anyCollection(), eq(5))).thenReturn(List.of(
+                bookRow(10L, "Java Guide", "Gosling"),
+                bookRow(10L, "Lalka", "Prus")));
+
+        ExplorePageDTO page = exploreFeedService.getPage(null, 20);
+
+        List<ExploreDTO> result = page.getUsers();
+        assertEquals(2, result.size());
+        assertNull(page.getNextCursor());
+        ExploreDTO explorer = result.get(0);
+        assertEquals("explorer", explorer.getUsername());
+        assertEquals(2, explorer.getShelves().size());
+        assertEquals("Favs", explorer.getShelves().get(0).getShelfName());
+        assertEquals(7, explorer.getShelves().get(0).getBookCount());
+        assertEquals(2, explorer.getShelves().get(0).getBooks().size());
+        assertTrue(explorer.getShelves().get(1).getBooks().isEmpty());
+        assertEquals("newbie", result.get(1).getUsername());
+        assertTrue(result.get(1).getShelves().isEmpty());
+    }
+
+    @Test
+    void shouldPageUsersByKeysetCursor() {
+        when(userRepository.findIdsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(3L, 8L));
+        when(shelfRepository.findExploreShelfRows(anyCollection()))
+                .thenReturn(List.of(shelfRow(3L, "first", null, null, null, 0L)));
+
+        ExplorePageDTO first = exploreFeedService.getPage(null, 1);
+
+        assertEquals(1, first.getUsers().size());
+        assertNotNull(first.getNextCursor());
+
+        when(userRepository.findIdsAfter(3L, PageRequest.of(0, 2))).thenReturn(List.of());
+        ExplorePageDTO second = exploreFeedService.getPage(first.getNextCursor(), 1);
+
+        assertTrue(second.getUsers().isEmpty());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void shouldSkipBookQueryWhenUsersHaveNoShelves() {
+        when(userRepository.findIdsAfter(any(), any())).thenReturn(List.of(1L));
+        when(shelfRepository.findExploreShelfRows(anyCollection()))
+                .thenReturn(List.of(shelfRow(1L, "newbie", null, null, null, 0L)));
+
+        exploreFeedService.getPage(null, 20);
+
+        verify(shelfRepository, never()).findExploreTopBooks(anyCollection(), anyInt());
+    }
+
+    @Test
+    void shouldServeRepeatedPagesFromCache() {
+        when(userRepository.findIdsAfter(any(), any())).thenReturn(List.of(1L));
+        when(shelfRepository.findExploreShelfRows(anyCollection()))
+                .thenReturn(List.of(shelfRow(1L, "explorer", 10L, "Favs", "FAV", 1L)));
+
+        exploreFeedService.getPage(null, 20);
+        exploreFeedService.getPage(null, 20);
+
+        verify(shelfRepository, times(1)).findExploreShelfRows(anyCollection());
+    }
+
+    @Test
+    void shouldReloadFeedAfterEviction() {
+        when(userRepository.findIdsAfter(any(), any())).thenReturn(List.of(1L));
+        when(shelfRepository.findExploreShelfRows(anyCollection()))
+                .thenReturn(List.of(shelfRow(1L, "explorer", 10L, "Favs", "FAV", 1L)));
+
+        exploreFeedService.getPage(null, 20);
+        exploreFeedService.evictUser(1L);
+        exploreFeedService.getPage(null, 20);
+
+        verify(shelfRepository, times(2)).findExploreShelfRows(anyCollection());
+    }
+
+    @Test
+    void shouldClampPageSize() {
+        when(userRepository.findIdsAfter(0L, PageRequest.of(0, 51))).thenReturn(List.of());
+
+        assertTrue(exploreFeedService.getPage(null, 10_000).getUsers().isEmpty());
+        verifyNoInteractions(shelfRepository);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> exploreFeedService.getPage("???", 20));
+        verifyNoInteractions(userRepository, shelfRepository);
+    }
+
+    private static ExploreShelfRow shelfRow(Long userId, String username, Long shelfId, String shelfName,
+                                            String shelfCode, Long bookCount) {
+        return new ExploreShelfRow() {
+            public Long getUserId() { return userId; }
+            public String getUsername() { return username; }
+            public Long getShelfId() { return shelfId; }
+            public String getShelfName() { return shelfName; }
+            public String getShelfCode() { return shelfCode; }
+            public Long getBookCount() { return bookCount; }
+        };
+    }
+
+    private static ExploreBookRow bookRow(Long shelfId, String title, String author) {
+        return new ExploreBookRow() {
+            public Long getShelfId() { return shelfId; }
+            public String getTitle() { return title; }
+            public String getAuthor() { return author; }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.FlightRecordingDTO;
+import com.booklovers.app.jfr.BackupEvent;
+import com.booklovers.app.jfr.ExploreEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingService flightRecordingService;
+
+    @BeforeEach
+    void setUp() {
+        flightRecordingService = new FlightRecordingService(directory.toString(), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (flightRecordingService.getStatus().isPresent()) {
+            Files.deleteIfExists(flightRecordingService.stop());
+        }
+    }
+
+    @Test
+    void shouldRecordApplicationEvents() throws IOException {
+        FlightRecordingDTO started = flightRecordingService.start();
+        assertEquals("RUNNING", started.getState());
+        assertEquals(60, started.getMaxDurationSeconds());
+
+        ExploreEvent explore = new ExploreEvent();
+        explore.begin();
+        explore.kind = "search";
+        explore.query = "lalka";
+        explore.rows = 7;
+        explore.commit();
+
+        BackupEvent backup = BackupEvent.begin("export", "csv", 42L);
+        backup.counting(written -> { }).accept(3);
+        backup.commit();
+
+        Path file = flightRecordingService.stop();
+        assertTrue(flightRecordingService.getStatus().isEmpty());
+        assertTrue(file.getFileName().toString().endsWith(FlightRecordingService.FILE_EXTENSION));
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent recordedExplore = events.stream()
+                .filter(event -> event.getEventType().getName().equals(ExploreEvent.NAME))
+                .findFirst().orElseThrow();
+        assertEquals("lalka", recordedExplore.getString("query"));
+        assertEquals(7, recordedExplore.getInt("rows"));
+        RecordedEvent recordedBackup = events.stream()
+                .filter(event -> event.getEventType().getName().equals(BackupEvent.NAME))
+                .findFirst().orElseThrow();
+        assertEquals(42L, recordedBackup.getLong("userId"));
+        assertEquals(3L, recordedBackup.getLong("books"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        flightRecordingService.transferAndDelete(file, out);
+        assertTrue(out.size() > 0);
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void shouldRejectSecondRecording() throws IOException {
+        flightRecordingService.start();
+
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.start());
+    }
+
+    @Test
+    void shouldRejectStopWithoutRecording() {
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.stop());
+    }
+}
@@ -27,6 +27,10 @@ class ReviewServiceTest {
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private BookRatingService bookRatingService;
+    @Mock
+    private ShelfActivityService shelfActivityService;
 
     @InjectMocks
     private ReviewService reviewService;
@@ -50,6 +54,8 @@ class ReviewServiceTest {
         reviewService.addReview(username, req);
 
         verify(reviewRepository, times(1)).save(any());
+        verify(bookRatingService).recordRating(1L, 5);
+        verify(shelfActivityService).recordReview(user, book, 5);
     }
 
     @Test
@@ -68,5 +74,6 @@ class ReviewServiceTest {
 
         assertThrows(IllegalStateException.class, () -> reviewService.addReview(username, req));
         verify(reviewRepository, never()).save(any());
+        verifyNoInteractions(bookRatingService);
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.metrics.StatementBudget;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.ShelfMembershipRepository;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Limity dotyczą prawdziwych serwisów na danych w H2, więc zapytanie wykonywane per wiersz
+// (N+1) przekroczy je niezależnie od tego, jak wyglądają mocki w testach kontrolerów.
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ServiceStatementBudgetTest {
+
+    private static final int READERS = 25;
+    private static final int BOOKS = 40;
+
+    @Autowired private ExploreFeedService exploreFeedService;
+    @Autowired private BackupService backupService;
+    @Autowired private BookService bookService;
+    @Autowired private ShelfService shelfService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ShelfRepository shelfRepository;
+    @Autowired private ShelfMembershipRepository shelfMembershipRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager entityManager;
+
+    private List<User> readers;
+    private List<Long> bookIds;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(new Object[]{"Limit " + i, "Autor", "BUDGET-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (title, author, isbn) VALUES (?, ?, ?)", books);
+        bookIds = jdbcTemplate.queryForList("SELECT id FROM book WHERE isbn LIKE 'BUDGET-%' ORDER BY id", Long.class);
+
+        readers = new ArrayList<>();
+        List<Object[]> reviews = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            User reader = new User();
+            reader.setUsername("limit" + i);
+            reader.setPassword("pass");
+            reader.setEmail("limit" + i + "@example.com");
+            userRepository.save(reader);
+            shelfService.createDefaultShelves(reader);
+            Long readShelfId = shelfRepository.findByShelfCodeAndUser("READ", reader).orElseThrow().getId();
+            shelfMembershipRepository.insertAll(readShelfId, bookIds);
+            reviews.add(new Object[]{1 + i % 10, "Recenzja " + i, Timestamp.valueOf(LocalDateTime.now()),
+                    reader.getId(), bookIds.get(0)});
+            readers.add(reader);
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO review (rating, content, created_at, user_id, book_id) VALUES (?, ?, ?, ?, ?)", reviews);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @StatementBudget(3)
+    void explorePageShouldNotQueryPerUserOrShelf() {
+        String cursor = Cursors.encode(readers.get(0).getId() - 1);
+
+        ExplorePageDTO page = exploreFeedService.getPage(cursor, READERS);
+
+        assertEquals(READERS, page.getUsers().size());
+        assertEquals("limit0", page.getUsers().get(0).getUsername());
+        assertEquals(BOOKS, page.getUsers().get(0).getShelves().get(0).getBookCount());
+    }
+
+    @Test
+    @StatementBudget(2)
+    void csvExportShouldStreamShelvesInSingleQuery() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        backupService.writeUserDataAsCsv(readers.get(0).getId(), out, false);
+
+        assertTrue(out.size() > 0);
+    }
+
+    // Użytkownik, półki i jedna paczka ID książek na każdą z trzech półek.
+    @Test
+    @StatementBudget(5)
+    void jsonExportShouldFetchBookIdsInBatchesPerShelf() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        backupService.writeUserData(readers.get(0).getId(), out);
+
+        assertTrue(out.size() > 0);
+    }
+
+    // Odczyt książki, trzy zbiorcze DELETE (półki, recenzje, podsumowanie ocen), pusta kolekcja recenzji
+    // ładowana przez kaskadę, DELETE książki i zapytanie kontrolne w teście.
+    @Test
+    @StatementBudget(7)
+    void deleteBookShouldNotDeleteReviewsOneByOne() {
+        bookService.deleteBook(bookIds.get(0));
+        entityManager.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM review WHERE book_id = ?", Integer.class, bookIds.get(0)));
+    }
+}
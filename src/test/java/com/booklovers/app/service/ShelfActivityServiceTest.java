@@ -0,0 +1,107 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.ShelfActivityPageDTO;
+import com.booklovers.app.model.ActivityType;
+import com.booklovers.app.model.Book;
+import com.booklovers.app.model.ShelfActivity;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.ShelfActivityBatchRepository;
+import com.booklovers.app.repository.ShelfActivityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShelfActivityServiceTest {
+
+    @Mock
+    private ShelfActivityRepository activityRepository;
+
+    @Mock
+    private ShelfActivityBatchRepository activityBatchRepository;
+
+    @InjectMocks
+    private ShelfActivityService shelfActivityService;
+
+    @Test
+    void shouldRecordDenormalizedShelfMove() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("janek");
+        Book book = new Book();
+        book.setId(2L);
+        book.setTitle("Lalka");
+        book.setAuthor("Prus");
+
+        shelfActivityService.recordShelfChange(ActivityType.MOVED, user, book, "READ", "READING");
+
+        ArgumentCaptor<ShelfActivity> captor = ArgumentCaptor.forClass(ShelfActivity.class);
+        verify(activityRepository).save(captor.capture());
+        ShelfActivity saved = captor.getValue();
+        assertEquals(ActivityType.MOVED, saved.getType());
+        assertEquals("janek", saved.getUsername());
+        assertEquals("Lalka", saved.getBookTitle());
+        assertEquals("READ", saved.getShelfCode());
+        assertEquals("READING", saved.getPreviousShelfCode());
+        assertNotNull(saved.getCreatedAt());
+    }
+
+    @Test
+    void shouldRecordShelfChangesInOneBatch() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("janek");
+        Book lalka = new Book(2L, "Lalka", "Prus", "1");
+        Book faraon = new Book(3L, "Faraon", "Prus", "2");
+
+        List<ShelfActivity> activities = List.of(
+                shelfActivityService.shelfChange(ActivityType.ADDED, user, lalka, "READ", null),
+                shelfActivityService.shelfChange(ActivityType.MOVED, user, faraon, "READ", "READING"));
+        shelfActivityService.recordAll(activities);
+
+        verify(activityBatchRepository).insertAll(activities);
+        verify(activityRepository, never()).save(any());
+        assertEquals("Faraon", activities.get(1).getBookTitle());
+        assertEquals("READING", activities.get(1).getPreviousShelfCode());
+    }
+
+    @Test
+    void shouldReturnNewestPageWithCursor() {
+        when(activityRepository.findAllByOrderByIdDesc(PageRequest.of(0, 3)))
+                .thenReturn(List.of(activity(9L), activity(8L), activity(7L)));
+
+        ShelfActivityPageDTO page = shelfActivityService.getRecentActivity(null, 2);
+
+        assertEquals(2, page.getActivities().size());
+        assertNotNull(page.getNextCursor());
+
+        when(activityRepository.findByIdLessThanOrderByIdDesc(8L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(activity(7L)));
+
+        ShelfActivityPageDTO next = shelfActivityService.getRecentActivity(page.getNextCursor(), 2);
+
+        assertEquals(1, next.getActivities().size());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> shelfActivityService.getRecentActivity("%%%", 20));
+    }
+
+    private static ShelfActivity activity(Long id) {
+        ShelfActivity activity = new ShelfActivity();
+        activity.setId(id);
+        activity.setType(ActivityType.ADDED);
+        return activity;
+    }
+}
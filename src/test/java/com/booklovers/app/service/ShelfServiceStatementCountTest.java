@@ -0,0 +1,127 @@
+package com.booklovers.app.service;
+
+import com.booklovers.app.dto.BulkShelfResultDTO;
+import com.booklovers.app.model.BulkShelfStatus;
+import com.booklovers.app.model.User;
+import com.booklovers.app.repository.ShelfMembershipRepository;
+import com.booklovers.app.repository.ShelfRepository;
+import com.booklovers.app.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ShelfServiceStatementCountTest {
+
+    private static final int SHELF_SIZE = 10_000;
+
+    @Autowired private ShelfService shelfService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ShelfRepository shelfRepository;
+    @Autowired private ShelfMembershipRepository shelfMembershipRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private List<Long> bookIds;
+    private Long readShelfId;
+    private Long readingShelfId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("kolekcjoner");
+        user.setPassword("pass");
+        user.setEmail("kolekcjoner@example.com");
+        userRepository.save(user);
+        shelfService.createDefaultShelves(user);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i <= SHELF_SIZE; i++) {
+            rows.add(new Object[]{"Tom " + i, "Autor", "KOL-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO book (title, author, isbn) VALUES (?, ?, ?)", rows);
+        bookIds = jdbcTemplate.queryForList("SELECT id FROM book WHERE isbn LIKE 'KOL-%' ORDER BY id", Long.class);
+
+        readShelfId = shelfRepository.findByShelfCodeAndUser("READ", user).orElseThrow().getId();
+        readingShelfId = shelfRepository.findByShelfCodeAndUser("READING", user).orElseThrow().getId();
+        shelfMembershipRepository.insertAll(readShelfId, bookIds.subList(0, SHELF_SIZE));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void addingToLargeShelfShouldNotLoadItsBooks() {
+        Long newBookId = bookIds.get(SHELF_SIZE);
+
+        shelfService.addBookToShelfByCode("kolekcjoner", "READ", newBookId);
+        entityManager.flush();
+
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getEntityLoadCount() < 10);
+        assertTrue(shelfMembershipRepository.contains(readShelfId, newBookId));
+        assertEquals(SHELF_SIZE + 1, countBooks(readShelfId));
+    }
+
+    @Test
+    void movingFromLargeShelfShouldNotLoadItsBooks() {
+        Long movedBookId = bookIds.get(0);
+
+        shelfService.addBookToShelfByCode("kolekcjoner", "READING", movedBookId);
+        entityManager.flush();
+
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(statistics.getEntityLoadCount() < 10);
+        assertFalse(shelfMembershipRepository.contains(readShelfId, movedBookId));
+        assertTrue(shelfMembershipRepository.contains(readingShelfId, movedBookId));
+        assertEquals(SHELF_SIZE - 1, countBooks(readShelfId));
+    }
+
+    @Test
+    void bulkAddShouldUseConstantNumberOfStatements() {
+        List<Long> batch = new ArrayList<>(bookIds.subList(SHELF_SIZE - 999, SHELF_SIZE + 1));
+
+        BulkShelfResultDTO result = shelfService.addBooksToShelf("kolekcjoner", "WANT_TO_READ", batch);
+        entityManager.flush();
+
+        assertEquals(1000, result.getChanged());
+        assertEquals(BulkShelfStatus.MOVED, result.getItems().get(0).getStatus());
+        assertEquals(BulkShelfStatus.ADDED, result.getItems().get(999).getStatus());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(1000, countBooks(wantToReadShelfId()));
+        assertEquals(SHELF_SIZE - 999, countBooks(readShelfId));
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shelf_activity WHERE shelf_code = 'WANT_TO_READ'", Integer.class));
+    }
+
+    private Long wantToReadShelfId() {
+        return shelfRepository.findByShelfCodeAndUser("WANT_TO_READ", user).orElseThrow().getId();
+    }
+
+    private int countBooks(Long shelfId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shelf_books WHERE shelf_id = ?", Integer.class, shelfId);
+    }
+}
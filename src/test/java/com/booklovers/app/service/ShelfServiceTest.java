@@ -1,10 +1,16 @@
 package com.booklovers.app.service;
 
+import com.booklovers.app.dto.BulkShelfResultDTO;
 import com.booklovers.app.dto.ExploreDTO;
+import com.booklovers.app.dto.ExplorePageDTO;
+import com.booklovers.app.model.ActivityType;
 import com.booklovers.app.model.Book;
+import com.booklovers.app.model.BulkShelfStatus;
 import com.booklovers.app.model.Shelf;
+import com.booklovers.app.model.ShelfActivity;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.BookRepository;
+import com.booklovers.app.repository.ShelfMembershipRepository;
 import com.booklovers.app.repository.ShelfRepository;
 import com.booklovers.app.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -12,12 +18,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,10 +40,22 @@ class ShelfServiceTest {
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private ExploreFeedService exploreFeedService;
+    @Mock
+    private ShelfActivityService shelfActivityService;
+    @Mock
+    private ShelfMembershipRepository shelfMembershipRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private ShelfService shelfService;
 
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     @Test
     void shouldAddBookToShelf_WhenDataIsCorrect() {
 
@@ -41,12 +64,13 @@ class ShelfServiceTest {
         Long bookId = 1L;
 
         User user = new User();
+        user.setId(7L);
         user.setUsername(username);
         user.setEmail("janek@example.com");
 
         Shelf shelf = new Shelf();
+        shelf.setId(10L);
         shelf.setShelfCode(shelfCode);
-        shelf.setBooks(new ArrayList<>());
 
         Book book = new Book();
         book.setId(bookId);
@@ -55,17 +79,129 @@ class ShelfServiceTest {
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         when(shelfRepository.findByShelfCodeAndUser(shelfCode, user)).thenReturn(Optional.of(shelf));
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(shelfMembershipRepository.claimShelfVersion(7L, 0L)).thenReturn(true);
+        when(shelfMembershipRepository.insert(10L, bookId)).thenReturn(true);
+        runTransactionsInline();
 
         shelfService.addBookToShelfByCode(username, shelfCode, bookId);
 
-        verify(shelfRepository, times(1)).save(shelf);
-        assertEquals(1, shelf.getBooks().size());
-        assertEquals("Wiedźmin", shelf.getBooks().get(0).getTitle());
+        verify(shelfMembershipRepository).insert(10L, bookId);
+        verify(shelfRepository, never()).save(any());
+        verify(exploreFeedService).evictUser(user.getId());
+        verify(shelfActivityService).recordShelfChange(ActivityType.ADDED, user, book, shelfCode, null);
+    }
+
+    @Test
+    void shouldMoveBookBetweenSystemShelves() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf read = new Shelf();
+        read.setId(2L);
+        read.setShelfCode("READ");
+
+        Book book = new Book();
+        book.setId(5L);
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(read));
+        when(shelfMembershipRepository.findShelfVersion(7L)).thenReturn(4L);
+        when(shelfMembershipRepository.findShelfCodesContaining(7L, 5L)).thenReturn(List.of("READING", "CUSTOM_ULUBIONE"));
+        when(shelfMembershipRepository.claimShelfVersion(7L, 4L)).thenReturn(true);
+        when(shelfMembershipRepository.deleteFromOtherShelves(7L, List.of(5L), 2L, Set.of("READ", "READING", "WANT_TO_READ")))
+                .thenReturn(1);
+        when(shelfMembershipRepository.insert(2L, 5L)).thenReturn(true);
+        runTransactionsInline();
+
+        shelfService.addBookToShelfByCode("janek", "READ", 5L);
+
+        verify(shelfRepository, never()).findAllByUser(any());
+        verify(shelfActivityService).recordShelfChange(ActivityType.MOVED, user, book, "READ", "READING");
+    }
+
+    @Test
+    void shouldRetryMoveAfterVersionConflict() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf read = new Shelf();
+        read.setId(2L);
+        read.setShelfCode("READ");
+
+        Book book = new Book();
+        book.setId(5L);
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(read));
+        when(shelfMembershipRepository.findShelfVersion(7L)).thenReturn(4L, 5L);
+        when(shelfMembershipRepository.claimShelfVersion(7L, 4L)).thenReturn(false);
+        when(shelfMembershipRepository.claimShelfVersion(7L, 5L)).thenReturn(true);
+        when(shelfMembershipRepository.insert(2L, 5L)).thenReturn(true);
+        runTransactionsInline();
+
+        shelfService.addBookToShelfByCode("janek", "READ", 5L);
+
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(shelfMembershipRepository, times(1)).insert(2L, 5L);
+        verify(shelfActivityService).recordShelfChange(ActivityType.ADDED, user, book, "READ", null);
+    }
+
+    @Test
+    void shouldGiveUpMoveAfterRepeatedConflicts() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf read = new Shelf();
+        read.setId(2L);
+        read.setShelfCode("READ");
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(new Book()));
+        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(read));
+        when(shelfMembershipRepository.claimShelfVersion(7L, 0L)).thenReturn(false);
+        runTransactionsInline();
+
+        assertThrows(IllegalStateException.class, () -> shelfService.addBookToShelfByCode("janek", "READ", 5L));
+
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(shelfMembershipRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    void shouldAddToCustomShelfWithoutClaimingVersion() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf custom = new Shelf();
+        custom.setId(3L);
+        custom.setShelfCode("CUSTOM_ULUBIONE");
+
+        Book book = new Book();
+        book.setId(5L);
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(bookRepository.findById(5L)).thenReturn(Optional.of(book));
+        when(shelfRepository.findByShelfCodeAndUser("CUSTOM_ULUBIONE", user)).thenReturn(Optional.of(custom));
+        when(shelfMembershipRepository.insert(3L, 5L)).thenReturn(true);
+        runTransactionsInline();
+
+        shelfService.addBookToShelfByCode("janek", "CUSTOM_ULUBIONE", 5L);
+
+        verify(shelfMembershipRepository, never()).claimShelfVersion(any(), anyLong());
+        verify(shelfMembershipRepository, never()).deleteFromOtherShelves(any(), any(), any(), any());
+        verify(shelfActivityService).recordShelfChange(ActivityType.ADDED, user, book, "CUSTOM_ULUBIONE", null);
     }
 
     @Test
     void shouldThrowException_WhenUserNotFound() {
         when(userRepository.findByUsername("nieznany")).thenReturn(Optional.empty());
+        runTransactionsInline();
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             shelfService.addBookToShelfByCode("nieznany", "READ", 1L);
@@ -79,22 +215,25 @@ class ShelfServiceTest {
     void shouldNotAddDuplicateBook() {
         String username = "janek";
         User user = new User();
+        user.setId(7L);
         user.setEmail("janek@example.com");
 
         Book book = new Book();
         book.setId(1L);
 
         Shelf shelf = new Shelf();
-        shelf.setBooks(new ArrayList<>());
-        shelf.getBooks().add(book);
+        shelf.setId(10L);
 
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(shelf));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(shelfMembershipRepository.claimShelfVersion(7L, 0L)).thenReturn(true);
+        when(shelfMembershipRepository.insert(10L, 1L)).thenReturn(false);
+        runTransactionsInline();
 
         shelfService.addBookToShelfByCode(username, "READ", 1L);
 
-        verify(shelfRepository, never()).save(shelf);
+        verify(shelfActivityService, never()).recordShelfChange(any(), any(), any(), any(), any());
     }
     @Test
     void shouldReturnAllShelvesForUser() {
@@ -116,33 +255,15 @@ class ShelfServiceTest {
     }
 
     @Test
-    void shouldReturnExplorePageWithCorrectMapping() {
-        User user = new User();
-        user.setUsername("explorer");
-        user.setEmail("explorer@example.com");
+    void shouldServeExplorePageFromFeedService() {
+        ExploreDTO dto = new ExploreDTO();
+        dto.setUsername("explorer");
+        when(exploreFeedService.getPage(null, 20)).thenReturn(new ExplorePageDTO(List.of(dto), null));
 
-        Shelf shelf = new Shelf();
-        shelf.setName("Favs");
-        shelf.setShelfCode("FAV");
+        ExplorePageDTO result = shelfService.getExplorePage(null, 20);
 
-        Book book = new Book();
-        book.setTitle("Java Guide");
-        book.setAuthor("Gosling");
-
-        shelf.setBooks(List.of(book));
-        user.setShelves(List.of(shelf));
-
-        when(userRepository.findAll()).thenReturn(List.of(user));
-
-        List<ExploreDTO> result = shelfService.getExplorePage();
-
-        assertEquals(1, result.size());
-        ExploreDTO dto = result.get(0);
-        assertEquals("explorer", dto.getUsername());
-
-        assertEquals(1, dto.getShelves().size());
-        assertEquals("Favs", dto.getShelves().get(0).getShelfName());
-        assertEquals("Java Guide", dto.getShelves().get(0).getBooks().get(0).getTitle());
+        assertEquals("explorer", result.getUsers().get(0).getUsername());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -242,24 +363,147 @@ class ShelfServiceTest {
     void shouldRemoveBookFromShelves() {
         String username = "janek";
         User user = new User();
+        user.setId(7L);
         user.setUsername(username);
         user.setEmail("janek@example.com");
 
         Book book = new Book();
         book.setId(1L);
 
-        Shelf shelf1 = new Shelf();
-        shelf1.setBooks(new java.util.ArrayList<>(List.of(book)));
-        Shelf shelf2 = new Shelf();
-        shelf2.setBooks(new java.util.ArrayList<>());
-
         when(userRepository.findByUsername(username)).thenReturn(Optional.of(user));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(shelfRepository.findAllByUser(user)).thenReturn(List.of(shelf1, shelf2));
+        when(shelfMembershipRepository.findShelfCodesContaining(7L, 1L)).thenReturn(List.of("READING"));
+        when(shelfMembershipRepository.deleteFromUserShelves(7L, 1L)).thenReturn(1);
 
         shelfService.removeBookFromShelves(username, 1L);
 
-        verify(shelfRepository).save(shelf1);
-        assertFalse(shelf1.getBooks().contains(book));
+        verify(shelfRepository, never()).save(any());
+        verify(shelfActivityService).recordShelfChange(ActivityType.REMOVED, user, book, null, "READING");
+    }
+
+    @Test
+    void shouldNotRecordRemovalWhenBookIsNotOnShelves() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Book book = new Book();
+        book.setId(1L);
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(shelfMembershipRepository.findShelfCodesContaining(7L, 1L)).thenReturn(List.of());
+
+        shelfService.removeBookFromShelves("janek", 1L);
+
+        verify(shelfMembershipRepository, never()).deleteFromUserShelves(any(), any());
+        verifyNoInteractions(shelfActivityService);
+    }
+
+    @Test
+    void shouldBulkAddBooksReportingEachItem() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf read = new Shelf();
+        read.setId(2L);
+        read.setShelfCode("READ");
+
+        Book fresh = new Book(1L, "Lalka", "Prus", "1");
+        Book reading = new Book(2L, "Faraon", "Prus", "2");
+        Book alreadyRead = new Book(3L, "Chłopi", "Reymont", "3");
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(read));
+        when(bookRepository.findAllById(Set.of(1L, 2L, 3L, 99L))).thenReturn(List.of(fresh, reading, alreadyRead));
+        when(shelfMembershipRepository.findShelfVersion(7L)).thenReturn(1L);
+        when(shelfMembershipRepository.findShelfCodesByBook(7L, Set.of(1L, 2L, 3L)))
+                .thenReturn(Map.of(2L, List.of("READING"), 3L, List.of("READ")));
+        when(shelfMembershipRepository.claimShelfVersion(7L, 1L)).thenReturn(true);
+        when(shelfActivityService.shelfChange(any(), eq(user), any(), eq("READ"), any())).thenReturn(new ShelfActivity());
+        runTransactionsInline();
+
+        BulkShelfResultDTO result = shelfService.addBooksToShelf("janek", "READ", List.of(1L, 2L, 3L, 99L, 1L));
+
+        assertEquals(2, result.getChanged());
+        assertEquals(List.of(BulkShelfStatus.ADDED, BulkShelfStatus.MOVED, BulkShelfStatus.ALREADY_ON_SHELF,
+                        BulkShelfStatus.UNKNOWN_BOOK, BulkShelfStatus.DUPLICATE),
+                result.getItems().stream().map(item -> item.getStatus()).toList());
+        assertEquals("READING", result.getItems().get(1).getPreviousShelfCode());
+        verify(shelfMembershipRepository).deleteFromOtherShelves(7L, List.of(1L, 2L), 2L, Set.of("READ", "READING", "WANT_TO_READ"));
+        verify(shelfMembershipRepository).insertAll(2L, List.of(1L, 2L));
+        verify(shelfActivityService).shelfChange(ActivityType.MOVED, user, reading, "READ", "READING");
+        verify(shelfActivityService).recordAll(argThat(activities -> activities.size() == 2));
+        verify(exploreFeedService).evictUser(7L);
+    }
+
+    @Test
+    void shouldBulkMoveOnlyBooksFromSourceShelf() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf custom = new Shelf();
+        custom.setId(3L);
+        custom.setShelfCode("CUSTOM_ULUBIONE");
+        Shelf other = new Shelf();
+        other.setId(4L);
+        other.setShelfCode("CUSTOM_INNE");
+
+        Book onSource = new Book(1L, "Lalka", "Prus", "1");
+        Book elsewhere = new Book(2L, "Faraon", "Prus", "2");
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(shelfRepository.findByShelfCodeAndUser("CUSTOM_INNE", user)).thenReturn(Optional.of(other));
+        when(shelfRepository.findByShelfCodeAndUser("CUSTOM_ULUBIONE", user)).thenReturn(Optional.of(custom));
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(onSource, elsewhere));
+        when(shelfMembershipRepository.findShelfCodesByBook(7L, Set.of(1L, 2L)))
+                .thenReturn(Map.of(1L, List.of("CUSTOM_ULUBIONE"), 2L, List.of("READ")));
+        runTransactionsInline();
+
+        BulkShelfResultDTO result = shelfService.moveBooksBetweenShelves("janek", "CUSTOM_ULUBIONE", "CUSTOM_INNE",
+                List.of(1L, 2L));
+
+        assertEquals(1, result.getChanged());
+        assertEquals(BulkShelfStatus.MOVED, result.getItems().get(0).getStatus());
+        assertEquals(BulkShelfStatus.NOT_ON_SHELF, result.getItems().get(1).getStatus());
+        verify(shelfMembershipRepository).deleteAll(3L, List.of(1L));
+        verify(shelfMembershipRepository).insertAll(4L, List.of(1L));
+        verify(shelfMembershipRepository, never()).claimShelfVersion(any(), anyLong());
+    }
+
+    @Test
+    void shouldRejectBulkMoveToSameShelf() {
+        assertThrows(IllegalArgumentException.class,
+                () -> shelfService.moveBooksBetweenShelves("janek", "READ", "READ", List.of(1L)));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void shouldBulkRemoveBooksFromShelf() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("janek");
+
+        Shelf read = new Shelf();
+        read.setId(2L);
+        read.setShelfCode("READ");
+
+        Book onShelf = new Book(1L, "Lalka", "Prus", "1");
+        Book notOnShelf = new Book(2L, "Faraon", "Prus", "2");
+
+        when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
+        when(shelfRepository.findByShelfCodeAndUser("READ", user)).thenReturn(Optional.of(read));
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(onShelf, notOnShelf));
+        when(shelfMembershipRepository.findBookIds(2L, Set.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        BulkShelfResultDTO result = shelfService.removeBooksFromShelf("janek", "READ", List.of(1L, 2L));
+
+        assertEquals(1, result.getChanged());
+        assertEquals(BulkShelfStatus.REMOVED, result.getItems().get(0).getStatus());
+        assertEquals(BulkShelfStatus.NOT_ON_SHELF, result.getItems().get(1).getStatus());
+        verify(shelfMembershipRepository).deleteAll(2L, List.of(1L));
+        verify(shelfActivityService).shelfChange(ActivityType.REMOVED, user, onShelf, null, "READ");
     }
-}
\ No newline at end of file
+}
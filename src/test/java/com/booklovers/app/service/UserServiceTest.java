@@ -7,6 +7,7 @@ import com.booklovers.app.model.Shelf;
 import com.booklovers.app.model.User;
 import com.booklovers.app.repository.ReviewRepository;
 import com.booklovers.app.repository.UserRepository;
+import com.booklovers.app.security.CustomUserDetailsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -17,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +35,10 @@ class UserServiceTest {
 
     @Mock
     private ShelfService shelfService;
+    @Mock
+    private ShelfActivityService shelfActivityService;
+    @Mock
+    private CustomUserDetailsService userDetailsService;
 
     @InjectMocks
     private UserService userService;
@@ -65,11 +71,11 @@ class UserServiceTest {
 
         Shelf readShelf = new Shelf();
         readShelf.setShelfCode("READ");
-        readShelf.setBooks(List.of(new Book(), new Book()));
+        readShelf.setBooks(Set.of(new Book(1L, "A", "B", "1"), new Book(2L, "C", "D", "2")));
 
         Shelf wantToReadShelf = new Shelf();
         wantToReadShelf.setShelfCode("WANT_TO_READ");
-        wantToReadShelf.setBooks(List.of(new Book()));
+        wantToReadShelf.setBooks(Set.of(new Book()));
 
         when(userRepository.findByUsername("janek")).thenReturn(Optional.of(user));
         when(shelfService.getAllShelvesForUser("janek")).thenReturn(List.of(readShelf, wantToReadShelf));
@@ -152,6 +158,8 @@ class UserServiceTest {
         assertNull(review2.getUser());
         verify(reviewRepository, times(2)).save(any(Review.class));
 
+        verify(shelfActivityService).forgetUser(user.getId());
         verify(userRepository).delete(user);
+        verify(userDetailsService).evict("janek");
     }
 }
\ No newline at end of file